@@ -0,0 +1,154 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Scores every (move, combat) pair for one of my agents: the stay tile and each neighbor, times hunkering, a shot at
+ * each enemy in range and a throw at each worthwhile blast center, so the move search can prefer a tile that opens a
+ * better shot or a throw that isn't suicidal from there.
+ * The pairs aren't enumerated one by one. Guaranteed shot damage is tabled per move tile and enemy, and the throw
+ * centers worth considering are read off the turn's SplashGrid once, so each move tile only takes a max over its rows.
+ * Combat values use CombatAllocator's units, which still makes the final team-wide combat choice.
+ */
+public class ActionGenerator {
+    final Agent agent;
+    final int[] moveTiles; // Stay first, then the walkable neighbors in Simulator arm order
+
+    // Guaranteed shot damage from each move tile at each enemy, 0 when out of range or on cooldown
+    private final int[][] shotTable;
+    private final Agent[] enemies;
+
+    // Centers within a throw of any move tile scoring above the threshold, with their value on current positions
+    private final int[] throwCenters;
+    private final int[] throwValues;
+
+    // Best combat per move tile
+    final int[] combatType;
+    final int[] combatArg;
+    final int[] combatValue;
+
+    public ActionGenerator(Agent agent, Collection<Agent> allAgents, SplashGrid grid) {
+        this.agent = agent;
+        GameContext ctx = agent.ctx;
+        Tile from = agent.getPositionAsTile();
+        moveTiles = new int[from.neighborIds.length + 1];
+        moveTiles[0] = from.id;
+        System.arraycopy(from.neighborIds, 0, moveTiles, 1, from.neighborIds.length);
+
+        List<Agent> enemyList = new ArrayList<>();
+        List<Agent> teammates = new ArrayList<>();
+        for (Agent a : allAgents) {
+            if (!a.active) continue;
+            if (a.player != agent.player) enemyList.add(a);
+            else if (a != agent) teammates.add(a);
+        }
+        enemies = enemyList.toArray(new Agent[0]);
+
+        shotTable = new int[moveTiles.length][enemies.length];
+        if (agent.cooldown == 0) {
+            DamageTable table = agent.damageTable();
+            for (int e = 0; e < enemies.length; e++) {
+                Agent enemy = enemies[e];
+                Tile at = enemy.getPositionAsTile();
+                boolean disarmed = enemy.cooldown > 0 && enemy.splash == 0;
+                for (int k = 0; k < moveTiles.length; k++) {
+                    int distance = ctx.manhattan(moveTiles[k], at.id);
+                    if (distance > 2 * agent.optimalRange) continue;
+                    // chooseShotTarget's hunker guess, made from the tile the shot is fired from
+                    boolean hunkered = disarmed || distance > 2 * enemy.optimalRange;
+                    double least = table.damage(moveTiles[k], at.id, hunkered);
+                    for (int escape : at.neighborIds) {
+                        least = Math.min(least, table.damage(moveTiles[k], escape, hunkered));
+                    }
+                    shotTable[k][e] = (int) least;
+                }
+            }
+        }
+
+        List<Integer> centers = new ArrayList<>();
+        List<Integer> values = new ArrayList<>();
+        if (agent.splash > 0) {
+            int range = Agent.splashBombRange + 1; // One step of movement, then a throw
+            for (int dX = -range; dX <= range; dX++) {
+                for (int dY = -(range - Math.abs(dX)); dY <= range - Math.abs(dX); dY++) {
+                    int cX = from.x + dX;
+                    int cY = from.y + dY;
+                    if (cX < 0 || cX >= ctx.width || cY < 0 || cY >= ctx.height) continue;
+                    int center = cY * ctx.width + cX;
+                    if (grid.score(center, agent.player) <= CombatAllocator.THROW_THRESHOLD) continue;
+                    centers.add(center);
+                    values.add(throwValue(center, teammates));
+                }
+            }
+        }
+        throwCenters = new int[centers.size()];
+        throwValues = new int[centers.size()];
+        for (int c = 0; c < throwCenters.length; c++) {
+            throwCenters[c] = centers.get(c);
+            throwValues[c] = values.get(c);
+        }
+
+        combatType = new int[moveTiles.length];
+        combatArg = new int[moveTiles.length];
+        combatValue = new int[moveTiles.length];
+        for (int k = 0; k < moveTiles.length; k++) bestCombat(k);
+    }
+
+    // Enemies hit on their current tiles against teammates caught, the same accounting as CombatAllocator
+    private int throwValue(int center, List<Agent> teammates) {
+        int value = -CombatAllocator.THROW_COST;
+        for (Agent enemy : enemies) {
+            if (agent.ctx.inSplash(center, enemy.tileId())) value += CombatAllocator.value(enemy.wetness, Agent.SPLASH_DAMAGE);
+        }
+        for (Agent mate : teammates) {
+            if (agent.ctx.inSplash(center, mate.tileId())) value -= CombatAllocator.value(mate.wetness, Agent.SPLASH_DAMAGE);
+        }
+        return value;
+    }
+
+    // Max over hunkering, each shot row entry and each throw that's legal from the move tile
+    private void bestCombat(int k) {
+        int type = CombatAllocator.HUNKER;
+        int arg = -1;
+        int best = 0;
+        for (int e = 0; e < enemies.length; e++) {
+            int value = CombatAllocator.value(enemies[e].wetness, shotTable[k][e]);
+            if (value > best) {
+                best = value;
+                type = CombatAllocator.SHOOT;
+                arg = enemies[e].agentId;
+            }
+        }
+        Tile[] byId = agent.ctx.byId;
+        Tile moveTile = byId[moveTiles[k]];
+        for (int c = 0; c < throwCenters.length; c++) {
+            if (throwValues[c] <= best || !Agent.isOkBombingPosition(moveTile, byId[throwCenters[c]])) continue;
+            best = throwValues[c];
+            type = CombatAllocator.THROW;
+            arg = throwCenters[c];
+        }
+        combatType[k] = type;
+        combatArg[k] = arg;
+        combatValue[k] = best;
+    }
+
+    // Best combat value after moving to tile, 0 if it isn't one of this agent's moves
+    public int combatValue(Tile moveTile) {
+        for (int k = 0; k < moveTiles.length; k++) {
+            if (moveTiles[k] == moveTile.id) return combatValue[k];
+        }
+        return 0;
+    }
+
+    public String describe(Tile moveTile) {
+        for (int k = 0; k < moveTiles.length; k++) {
+            if (moveTiles[k] != moveTile.id) continue;
+            switch (combatType[k]) {
+                case CombatAllocator.SHOOT: return "SHOOT " + combatArg[k];
+                case CombatAllocator.THROW: return "THROW " + agent.ctx.byId[combatArg[k]];
+                default: return "HUNKER_DOWN";
+            }
+        }
+        return "HUNKER_DOWN";
+    }
+}
@@ -4,15 +4,7 @@ import java.math.*;
 
 public class Agent {
 
-    public static HashMap<Integer, Agent> activeAgents = new HashMap<Integer, Agent>();
-
-    public static void setDead(){
-        for (Map.Entry<Integer, Agent> entry: activeAgents.entrySet()){
-            Agent e = entry.getValue();
-            e.active = false;
-        }
-    }
-
+    final GameContext ctx;
     int agentId; // Agent unique id
     int player; // Player id of this agent
     int shootCooldown; // Number of turns between each of this agent's shots
@@ -21,6 +13,7 @@ public class Agent {
     int splashBombs;
     boolean active;
     static final int splashBombRange = 4;
+    static final int SPLASH_DAMAGE = 30;
 
     public String toString(){
         return "Agent(" + this.agentId + ", " + this.active + ")@"+this.getPositionAsTile();
@@ -37,7 +30,8 @@ public class Agent {
     Agent shootId; // The enemy agent I want to shoot at
     Tile bombTarget;
 
-    public Agent(int player, int id, int shootCooldown, int optimalRange, int soakingPower, int maxSplashBombs, boolean actual){
+    public Agent(GameContext ctx, int player, int id, int shootCooldown, int optimalRange, int soakingPower, int maxSplashBombs, boolean actual){
+        this.ctx = ctx;
         this.player = player;
         this.agentId = id;
         this.shootCooldown = shootCooldown;
@@ -48,21 +42,10 @@ public class Agent {
         this.active = true;
 
         if (actual) {
-            activeAgents.put(id, this);
+            ctx.activeAgents.put(id, this);
         }
     }
 
-    public Agent clone(){
-        Agent cl = new Agent(this.player, this.agentId, this.shootCooldown, this.optimalRange, this.soakingPower, this.splashBombs, false);
-        cl.update(this.x, this.y, this.cooldown, this.splash, this.wetness, this.active);
-
-        cl.shootId = this.shootId;
-        cl.bombTarget = this.bombTarget;
-        cl.goal = this.goal;
-
-        return cl;
-    }
-
     public void update(int x, int y, int cooldown, int splash, int wetness, boolean active){
         this.x = x;
         this.y = y;
@@ -82,8 +65,8 @@ public class Agent {
         int shortestDist = Integer.MAX_VALUE;
 
         for (Tile t: this.getPositionAsTile().getNeighbors()) {
-            int dist = Tile.AllDistances.get(t).get(target);
-            if (dist < shortestDist) {
+            int dist = t.agentPathDistanceTo(target);
+            if (dist != Tile.UNREACHABLE && dist < shortestDist) {
                 nextTile = t;
                 shortestDist = dist;
             }
@@ -106,7 +89,11 @@ public class Agent {
     }
 
     public Tile getPositionAsTile(){
-        return Player.map[this.x][this.y];
+        return ctx.map[this.x][this.y];
+    }
+
+    public int tileId() {
+        return this.y * ctx.width + this.x;
     }
 
     public boolean isOkBombingPosition(Tile pos) {
@@ -116,11 +103,7 @@ public class Agent {
 
     static boolean isOkBombingPosition(Tile pos, Tile target) {
         // Return false if bombing will commit suicide or if too far away
-        if (target == null) return false;
-        if (target.distanceTo(pos) > 4) return false;
-        if (target.distanceTo(pos) <= 1) return false;
-        // Diagonal (anti-suicide)
-        return target.distanceTo(pos) != 2 || target.distanceVecTo(pos)[0] != 1;
+        return target != null && pos.ctx.bombingPositions[target.id].get(pos.id);
     }
 
     public boolean inOkBombingPosition() {
@@ -129,32 +112,41 @@ public class Agent {
 
     public Tile optimalBombingPosition(Tile target) {
         // Get nearest accessible bombing location to bombTarget
-        // Just sample some neighbors and return
-        Set<Tile> evaluated = new HashSet<Tile>();
-        Queue<Tile> tiles = new ArrayDeque<Tile>();
-        tiles.add(this.getPositionAsTile());
-
-        while (!tiles.isEmpty()){
-            Tile current = tiles.poll();
-
-            if (isOkBombingPosition(current, target)) {
-                return current;
-            }
-
-            evaluated.add(current);
+        int best = nearestBombingPosition(ctx, tileId(), target.id);
+        return best < 0 ? null : ctx.byId[best];
+    }
 
-            for (Tile t: current.getNeighbors()) {
-                if (!evaluated.contains(t)) tiles.add(t);
-                evaluated.add(t);
+    /**
+     * Walkable tile a throw at target is legal from with the least path distance from fromTile, or -1 if none is reachable.
+     * Ties go to the lowest tile id.
+     */
+    static int nearestBombingPosition(GameContext ctx, int fromTile, int target) {
+        int best = -1;
+        int bestDist = Tile.UNREACHABLE;
+        Bitboard positions = ctx.bombingPositions[target];
+        for (int t = positions.nextSetBit(0); t >= 0; t = positions.nextSetBit(t + 1)) {
+            int dist = ctx.pathDistance(fromTile, t);
+            if (dist < bestDist && ctx.walkable.get(t)) {
+                best = t;
+                bestDist = dist;
             }
         }
-
-        return null;
+        return best;
     }
 
     // Made agnostic
     // Make sure I update my position before calling this function
     public AgentIntList chooseBombTarget(Collection<Agent> allAgents, Tile[][] map, double thresholdScore) {
+        SplashGrid grid = new SplashGrid(ctx);
+        grid.build(allAgents);
+        return chooseBombTarget(grid, allAgents, map, thresholdScore);
+    }
+
+    /**
+     * Picks the blast center in range maximizing net splash damage, read from a grid built once for all throwers.
+     * Hits are discounted when the agent can step out of the blast, enemies next to it add a small walk-in bonus.
+     */
+    public AgentIntList chooseBombTarget(SplashGrid grid, Collection<Agent> allAgents, Tile[][] map, double thresholdScore) {
 
         // Returns who dies after a target has been chosen maximizing net wetness
         // Punish hurting of my own teammates
@@ -163,116 +155,36 @@ public class Agent {
             return null;
         }
 
-        Tile best = null;
-        double bestScore = thresholdScore; // Prevent throwing just because someone is close enough
-        AgentIntList explosion = null;
-
-        for (int dX = -Agent.splashBombRange; dX <= Agent.splashBombRange; dX++) {
-            for (int dY = -(Agent.splashBombRange - Math.abs(dX)); dY <= Agent.splashBombRange - Math.abs(dX); dY++) {
-                int cX = dX + this.x;
-                int cY = dY + this.y;
-
-                // System.err.println("Evaluating throw at (" + cX + ", " + cY + ") from (" + this.x + ", " + this.y + ")");
-
-                if (cX >= 0 && cX < map.length && cY >= 0 && cY < map[cX].length) {
-                    double currentScore = 0;
-                    // TODO: A potential issue of this below, however, is that I do not take into account agents that could move into my bomb
-                    // Should calculateSplashDamage take into account all agents from a radius of 2 instead of 1 from the potential target?
-                    AgentIntList potentialExplosion = calculateSplashDamage(cX, cY, map, allAgents); 
-                    Tile bombTile = map[cX][cY];
-
-                    for (Agent hitAgent : potentialExplosion.hitList) {
-                        int numEscapes = 0;
-                        for (Tile escapeTile : hitAgent.getPositionAsTile().getNeighbors()) {
-                            if (escapeTile.bombDistanceTo(bombTile) > 1) {
-                                numEscapes++;
-                            }
-                        }
-                        
-                        double damage = 30;
-                        // If the agent can easily escape, reduce the value of hitting them.
-                        if (numEscapes > 0) {
-                            damage *= (0.45 / numEscapes); // Might tune later
-                            // System.err.println(damage + " " + numEscapes);
-                        }
-
-                        // TODO: But also consider potential agents that could be hit, and add on the possibility token of bombing them (if they are an enemy)
-                        // Consideration: By this point in time, I'm already aware of my teammate's updated positions, so only need to sample enemies 
-
-                        // If the agent is an enemy, add to score. If teammate, subtract. Using total wetness instead of pure damage to prioritize kills
-                        // currentScore += (hitAgent.player == this.player) ? -Math.min(100, damage + hitAgent.wetness) : Math.min(100, damage + hitAgent.wetness);
-                        currentScore += (hitAgent.player == this.player) ? -damage : damage;
-                    }
-
-                    // Score based on enemies who might move INTO the blast
-                    for (Agent agent : allAgents) {
-                        if (!agent.active || agent.player == this.player) continue;
-                        // If agent is 1 tile away from the blast (dist 2 from center)
-                        if (agent.getPositionAsTile().distanceTo(bombTile) == 2 && agent.getPositionAsTile().bombDistanceTo(bombTile) > 1) {
-                            // Assume a small chance the enemy makes a mistake, should actually be really small
-                            double damage = 30 * 0.15; // 15% chance
-                            currentScore += damage;
-                        }
-                    }
-
-                    if (currentScore > 0) {
-                        //System.err.println(this + " looking at throws at " + bombTile + " Damage: " + currentScore + " " + (currentScore > bestScore));
-                        //System.err.println(potentialExplosion.hitList);
-                    }
-
-                    if (currentScore > bestScore) {
-                        best = map[cX][cY];
-                        bestScore = currentScore;
-                        explosion = potentialExplosion;
-                    }
-                }
-            }
+        // Prevent throwing just because someone is close enough
+        int best = grid.bestTarget(tileId(), this.player, thresholdScore);
+        if (best < 0) {
+            this.bombTarget = null;
+            return null;
         }
 
-        this.bombTarget = best;
-        if (explosion != null) {
-            System.err.println("Agent " + agentId + " choosing to target " + best + ": " + bestScore + " killed: " + explosion.killedList);
-        }
+        this.bombTarget = ctx.byId[best];
+        AgentIntList explosion = calculateSplashDamage(best, grid);
+        System.err.println("Agent " + agentId + " choosing to target " + bombTarget + ": " + grid.score(best, this.player) + " killed: " + explosion.killed);
         return explosion;
     }
 
     static class AgentIntList {
-        Set<Agent> killedList;
-        Set<Agent> hitList;
+        int killed; // Enemies the blast takes to 100 wetness
+        int hit; // Agents of either side in the blast
         int damage;
     }
 
-    public AgentIntList calculateSplashDamage(int cx, int cy, Tile[][] map, Collection<Agent> agents) {
-        Set<Tile> tiles = new HashSet<Tile>();
-        Set<Agent> killedEnemies = new HashSet<Agent>();
-        Set<Agent> hitEnemies = new HashSet<Agent>();
-
-        for (int dX = -1; dX <= 1; dX++) {
-            for (int dY = -1; dY <= 1; dY++) {
-                if (cx + dX >= 0 && cy + dY >= 0 && cx + dX < map.length && cy + dY < map[cx + dX].length) {
-                    tiles.add(map[cx + dX][cy + dY]);
-                }
-            }
-        }
-
-        int damage = 0;
-        for (Agent a: agents) {
-            if (a.active) {
-                if (tiles.contains(a.getPositionAsTile())) {
-                    damage += a.player == this.player ? -30 : 30; // Prevent team killing
-                    hitEnemies.add(a);
-                    if (a.wetness + 30 >= 100 && a.player != this.player) {
-                        killedEnemies.add(a);
-                    }
-                }
-            }
-        }
+    // Blast at center counted on the grid's occupancy masks, agents on one tile are counted once
+    public AgentIntList calculateSplashDamage(int center, SplashGrid grid) {
+        Bitboard area = ctx.splashArea[center];
+        int enemy = 1 - this.player;
+        int enemiesHit = area.countAnd(grid.occupancy[enemy]);
+        int matesHit = area.countAnd(grid.occupancy[this.player]);
 
         AgentIntList res = new AgentIntList();
-        res.killedList = killedEnemies;
-        res.hitList = hitEnemies;
-        res.damage = damage;
-
+        res.killed = area.countAnd(grid.soakable[enemy]);
+        res.hit = enemiesHit + matesHit;
+        res.damage = (enemiesHit - matesHit) * SPLASH_DAMAGE; // Prevent team killing
         return res;
     }
 
@@ -346,22 +258,16 @@ public class Agent {
     }
 
     public double calculateDamageShootingAt(int x, int y, boolean hunkered) {
-        double reduction = 1 - Tile.damageReductionGradient.get(Player.map[x][y])[this.x][this.y]; // Calculate the damage reduction for the target's tile
-        reduction -= hunkered ? 0.25 : 0;
-
-        int shootDistance = distanceTo(x, y);
-        if (shootDistance <= optimalRange) {
-            return soakingPower * reduction;
-        } else if (shootDistance <= optimalRange * 2) {
-            return (soakingPower / 2.0) * reduction;
-        }
+        return damageTable().damage(ctx.map[this.x][this.y].id, ctx.map[x][y].id, hunkered);
+    }
 
-        return 0;
+    public DamageTable damageTable() {
+        return ctx.damageTable(this.soakingPower, this.optimalRange);
     }
 
     public int distanceTo(int x, int y){
         Tile me = getPositionAsTile();
-        Tile t = Player.map[x][y]; // Grab tile from some map rather than new one
+        Tile t = ctx.map[x][y]; // Grab tile from some map rather than new one
         return me.distanceTo(t);
     }
 
@@ -0,0 +1,83 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Runs the registered searchers in rounds until the turn's deadline, always holding a valid best-so-far move set.
+ * The best set starts as the greedy State.getBestActionsForTurn result, which has no value on the searchers' scale, so
+ * the first offer always replaces it. After that a searcher replaces another searcher's plan by offering a higher value,
+ * and always replaces its own earlier offer, since later rounds of the same search are better informed.
+ */
+public class AnytimeSearch {
+
+    public interface Searcher {
+        String name();
+
+        // Called once per game before its first turn, the searcher itself lives as long as its bot
+        void newGame();
+
+        // Called once per turn before the first round
+        void reset(State state, List<State.Action> greedy, int turnCounter);
+
+        /**
+         * Runs one more round (a deeper iteration or another batch of rollouts), offering any improvement to search.
+         * Returns false once further rounds can't improve anything this turn.
+         */
+        boolean deepen(AnytimeSearch search, TimeBudget budget);
+
+        // Depth reached this turn
+        int depth();
+
+        // Summary for the turn report
+        default String stats() {
+            return "depth " + depth();
+        }
+    }
+
+    final TimeBudget budget;
+    List<State.Action> best;
+    double bestValue = Double.NEGATIVE_INFINITY; // Greedy isn't scored, any offer beats it
+    String bestSource = "greedy";
+    int rounds;
+
+    public AnytimeSearch(TimeBudget budget, List<State.Action> greedy) {
+        this.budget = budget;
+        this.best = greedy;
+    }
+
+    public void offer(List<State.Action> plan, double value, String source) {
+        if (value > bestValue || source.equals(bestSource)) {
+            best = plan;
+            bestValue = value;
+            bestSource = source;
+        }
+    }
+
+    public List<State.Action> run(State state, List<Searcher> searchers, int turnCounter) {
+        List<Searcher> active = new ArrayList<>();
+        for (Searcher s : searchers) {
+            if (budget.expired()) break;
+            s.reset(state, best, turnCounter);
+            active.add(s);
+        }
+
+        while (!active.isEmpty() && !budget.expired()) {
+            Iterator<Searcher> it = active.iterator();
+            while (it.hasNext() && !budget.expired()) {
+                if (!it.next().deepen(this, budget)) it.remove();
+            }
+            rounds++;
+        }
+        return best;
+    }
+
+    public String report(List<Searcher> searchers, int turnCounter) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Turn %d: used %.1f of %.0f ms (search budget %.0f ms), rounds %d, best from %s",
+                turnCounter, budget.elapsedMs(), budget.limitMs(), budget.searchBudgetMs(), rounds, bestSource));
+        for (Searcher s : searchers) {
+            sb.append(", ").append(s.name()).append(" ").append(s.stats());
+        }
+        return sb.toString();
+    }
+}
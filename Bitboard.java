@@ -0,0 +1,127 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Fixed size bit set over dense tile ids (id = y * width + x).
+ * Maps are at most 20x10 = 200 cells, so four longs cover every grid.
+ * Shifting by 1 moves along x and shifting by width moves along y, the edge masks stop bits wrapping across rows.
+ */
+public class Bitboard {
+    static final int WORDS = 4;
+
+    final long[] w = new long[WORDS];
+
+    // Fills the context's static layers, once per map
+    public static void buildLayers(GameContext ctx) {
+        ctx.all = new Bitboard();
+        ctx.walkable = new Bitboard();
+        ctx.notLeftEdge = new Bitboard();
+        ctx.notRightEdge = new Bitboard();
+
+        for (Tile t : ctx.byId) {
+            ctx.all.set(t.id);
+            if (t.value == 0) ctx.walkable.set(t.id);
+            if (t.x != 0) ctx.notLeftEdge.set(t.id);
+            if (t.x != ctx.width - 1) ctx.notRightEdge.set(t.id);
+        }
+
+        ctx.splashArea = new Bitboard[ctx.tileCount];
+        for (Tile t : ctx.byId) {
+            Bitboard single = new Bitboard();
+            single.set(t.id);
+            ctx.splashArea[t.id] = new Bitboard();
+            ctx.splashArea[t.id].expand8(single, ctx);
+        }
+
+        // Within throwing range (2 to 4 steps) and outside the blast, so every tile of the 3x3 box is excluded
+        ctx.bombingPositions = new Bitboard[ctx.tileCount];
+        for (Tile target : ctx.byId) {
+            ctx.bombingPositions[target.id] = new Bitboard();
+            for (Tile pos : ctx.byId) {
+                int dist = target.distanceTo(pos);
+                if (dist >= 2 && dist <= Agent.splashBombRange && !ctx.splashArea[target.id].get(pos.id)) ctx.bombingPositions[target.id].set(pos.id);
+            }
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < WORDS; i++) w[i] = 0;
+    }
+
+    public void set(int id) {
+        w[id >>> 6] |= 1L << id;
+    }
+
+    public void unset(int id) {
+        w[id >>> 6] &= ~(1L << id);
+    }
+
+    public boolean get(int id) {
+        return (w[id >>> 6] & (1L << id)) != 0;
+    }
+
+    // Counts the bits set in both boards without building the intersection
+    public int countAnd(Bitboard o) {
+        return Long.bitCount(w[0] & o.w[0]) + Long.bitCount(w[1] & o.w[1]) + Long.bitCount(w[2] & o.w[2]) + Long.bitCount(w[3] & o.w[3]);
+    }
+
+    public int cardinality() {
+        return Long.bitCount(w[0]) + Long.bitCount(w[1]) + Long.bitCount(w[2]) + Long.bitCount(w[3]);
+    }
+
+    // Returns the lowest set id >= from, or -1
+    public int nextSetBit(int from) {
+        int i = from >>> 6;
+        if (i >= WORDS) return -1;
+        long word = w[i] & (-1L << from);
+        while (true) {
+            if (word != 0) return (i << 6) + Long.numberOfTrailingZeros(word);
+            if (++i == WORDS) return -1;
+            word = w[i];
+        }
+    }
+
+    // Word i of src shifted towards higher ids by n bits
+    private static long shiftedUp(long[] src, int n, int i) {
+        int q = n >>> 6;
+        int r = n & 63;
+        int j = i - q;
+        if (j < 0) return 0;
+        long v = src[j] << r;
+        if (r != 0 && j > 0) v |= src[j - 1] >>> (64 - r);
+        return v;
+    }
+
+    // Word i of src shifted towards lower ids by n bits
+    private static long shiftedDown(long[] src, int n, int i) {
+        int q = n >>> 6;
+        int r = n & 63;
+        int j = i + q;
+        if (j >= WORDS) return 0;
+        long v = src[j] >>> r;
+        if (r != 0 && j + 1 < WORDS) v |= src[j + 1] << (64 - r);
+        return v;
+    }
+
+    // Word j of src spread one tile along x in both directions
+    private static long rowSpread(long[] src, int j, GameContext ctx) {
+        if (j < 0 || j >= WORDS) return 0;
+        return src[j] | (shiftedUp(src, 1, j) & ctx.notLeftEdge.w[j]) | (shiftedDown(src, 1, j) & ctx.notRightEdge.w[j]);
+    }
+
+    /**
+     * Sets this board to src plus its orthogonal and diagonal neighbors (the splash pattern). this and src must be different boards.
+     * Relies on width < 64, which the map constraints guarantee.
+     */
+    public void expand8(Bitboard src, GameContext ctx) {
+        long[] s = src.w;
+        int width = ctx.width;
+        for (int i = 0; i < WORDS; i++) {
+            long row = rowSpread(s, i, ctx);
+            long up = (row << width) | (rowSpread(s, i - 1, ctx) >>> (64 - width));
+            long down = (row >>> width) | (rowSpread(s, i + 1, ctx) << (64 - width));
+            w[i] = (row | up | down) & ctx.all.w[i];
+        }
+    }
+}
@@ -0,0 +1,14 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * One side of one game. init gets the game's context once the initialization input is read and precomputed,
+ * decide gets each turn's input and returns the output lines, one per agent.
+ * Everything a bot keeps lives in its own fields and its context, so a harness can run any number of bots side by side.
+ */
+public interface Bot {
+    void init(GameContext ctx);
+
+    List<String> decide(TurnSnapshot turn);
+}
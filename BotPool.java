@@ -0,0 +1,48 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Local tool, not part of the submission. Bot processes kept running between games, so JVM startup and JIT warmup are
+ * paid once per process instead of once per game. A process goes back to the pool after a game unless it timed out or
+ * exited, its next game then starts with Player.NEW_GAME.
+ */
+public class BotPool implements Closeable {
+    private final Map<String, Deque<ProcessReferee.BotProcess>> idle = new HashMap<>();
+    private final List<ProcessReferee.BotProcess> all = new ArrayList<>();
+
+    // Starts count processes for command ahead of the first game
+    public synchronized void prestart(String command, int count) throws IOException {
+        for (int i = 0; i < count; i++) idle(command).push(start(command));
+    }
+
+    public synchronized ProcessReferee.BotProcess acquire(String command) throws IOException {
+        Deque<ProcessReferee.BotProcess> waiting = idle(command);
+        return waiting.isEmpty() ? start(command) : waiting.pop();
+    }
+
+    public synchronized void release(ProcessReferee.BotProcess bot) {
+        if (bot.broken || !bot.process.isAlive()) {
+            bot.close();
+            return;
+        }
+        bot.lines.clear(); // Extra lines from the last turn would be read as the next game's output
+        idle(bot.command).push(bot);
+    }
+
+    private Deque<ProcessReferee.BotProcess> idle(String command) {
+        return idle.computeIfAbsent(command, c -> new ArrayDeque<>());
+    }
+
+    private ProcessReferee.BotProcess start(String command) throws IOException {
+        ProcessReferee.BotProcess bot = new ProcessReferee.BotProcess(command);
+        all.add(bot);
+        return bot;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (ProcessReferee.BotProcess bot : all) bot.close();
+        idle.clear();
+    }
+}
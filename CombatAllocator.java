@@ -0,0 +1,271 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Chooses SHOOT / THROW / HUNKER_DOWN for all my agents together, so two agents never overkill the same target while
+ * another enemy could have been pushed over a threshold.
+ * Each option's damage is precomputed per enemy: shots use the guaranteed damage chooseShotTarget assumes (the least
+ * the target takes over its possible moves), throws the splash on current positions, friendly hits included.
+ * The team value per enemy is damage up to its remaining health plus the kill and 50-wetness bonuses chooseShotTarget
+ * gives, minus the same for my own agents caught in a blast. Branch and bound over the option combinations,
+ * bounded by giving every enemy the most each remaining agent could deal it.
+ */
+public class CombatAllocator {
+    static final int KILL_BONUS = 100;
+    static final int HALF_BONUS = 50; // Pushing over 50 wetness doubles the target's territory distance
+    static final int THROW_COST = 5; // A bomb spent on the same value as a shot isn't worth it
+    static final double THROW_THRESHOLD = 13.5; // Same escape-aware splash score chooseBombTarget needed
+    static final int THROW_CANDIDATES = 3; // Best blast centers kept per agent
+    static final int TIME_CHECK_NODES = 1024;
+
+    static final int HUNKER = 0;
+    static final int SHOOT = 1;
+    static final int THROW = 2;
+
+    private final GameContext ctx;
+    private final Agent[] mine;
+    private final Agent[] enemies;
+
+    // Options per agent: type, argument (enemy index or tile id) and damage dealt to every enemy and every one of mine
+    private final int[][] optionType;
+    private final int[][] optionArg;
+    private final int[][][] enemyDamage;
+    private final int[][][] friendlyDamage;
+    private final int[][] maxEnemyDamage; // Most each agent can deal to each enemy over its options
+
+    private final int[] enemyTotal;
+    private final int[] friendlyTotal;
+    private final int[] choice;
+    private final int[] best;
+    private int bestValue;
+    private int baselineValue; // Everyone picking their best option on their own, like the old per-agent loop
+
+    long nodes;
+    boolean complete;
+    private long deadlineNanos;
+
+    public CombatAllocator(List<Agent> myAgents, Collection<Agent> allAgents, SplashGrid grid) {
+        ctx = grid.ctx;
+        mine = myAgents.toArray(new Agent[0]);
+        List<Agent> enemyList = new ArrayList<>();
+        for (Agent a : allAgents) {
+            if (a.active && a.player != ctx.playerId) enemyList.add(a);
+        }
+        enemies = enemyList.toArray(new Agent[0]);
+
+        int m = mine.length;
+        optionType = new int[m][];
+        optionArg = new int[m][];
+        enemyDamage = new int[m][][];
+        friendlyDamage = new int[m][][];
+        maxEnemyDamage = new int[m][enemies.length];
+        enemyTotal = new int[enemies.length];
+        friendlyTotal = new int[m];
+        choice = new int[m];
+        best = new int[m];
+
+        for (int i = 0; i < m; i++) buildOptions(i, grid);
+    }
+
+    private void buildOptions(int i, SplashGrid grid) {
+        Agent me = mine[i];
+        int from = me.tileId();
+        List<int[]> options = new ArrayList<>(); // {type, arg}
+        options.add(new int[] {HUNKER, -1});
+
+        if (me.cooldown == 0) {
+            for (int e = 0; e < enemies.length; e++) {
+                if (me.distanceTo(enemies[e].x, enemies[e].y) <= 2 * me.optimalRange) options.add(new int[] {SHOOT, e});
+            }
+        }
+
+        if (me.splash > 0) {
+            // Best legal blast centers by the escape-aware grid score, in chooseBombTarget's scan order for ties
+            List<Integer> centers = new ArrayList<>();
+            List<Double> scores = new ArrayList<>();
+            int range = Agent.splashBombRange;
+            for (int dX = -range; dX <= range; dX++) {
+                for (int dY = -(range - Math.abs(dX)); dY <= range - Math.abs(dX); dY++) {
+                    int cX = me.x + dX;
+                    int cY = me.y + dY;
+                    if (cX < 0 || cX >= ctx.width || cY < 0 || cY >= ctx.height) continue;
+                    int center = cY * ctx.width + cX;
+                    double score = grid.score(center, me.player);
+                    if (score <= THROW_THRESHOLD || !Agent.isOkBombingPosition(ctx.byId[from], ctx.byId[center])) continue;
+                    centers.add(center);
+                    scores.add(score);
+                }
+            }
+            Integer[] order = new Integer[centers.size()];
+            for (int k = 0; k < order.length; k++) order[k] = k;
+            Arrays.sort(order, (a, b) -> Double.compare(scores.get(b), scores.get(a))); // Stable, ties keep scan order
+            for (int k = 0; k < Math.min(THROW_CANDIDATES, order.length); k++) options.add(new int[] {THROW, centers.get(order[k])});
+        }
+
+        int count = options.size();
+        optionType[i] = new int[count];
+        optionArg[i] = new int[count];
+        enemyDamage[i] = new int[count][enemies.length];
+        friendlyDamage[i] = new int[count][mine.length];
+        for (int k = 0; k < count; k++) {
+            int type = options.get(k)[0];
+            int arg = options.get(k)[1];
+            optionType[i][k] = type;
+            optionArg[i][k] = arg;
+            if (type == SHOOT) {
+                enemyDamage[i][k][arg] = guaranteedShot(me, enemies[arg]);
+            } else if (type == THROW) {
+                for (int e = 0; e < enemies.length; e++) {
+                    if (ctx.inSplash(arg, enemies[e].tileId())) enemyDamage[i][k][e] = Agent.SPLASH_DAMAGE;
+                }
+                for (int j = 0; j < mine.length; j++) {
+                    if (ctx.inSplash(arg, mine[j].tileId())) friendlyDamage[i][k][j] = Agent.SPLASH_DAMAGE;
+                }
+            }
+            for (int e = 0; e < enemies.length; e++) {
+                maxEnemyDamage[i][e] = Math.max(maxEnemyDamage[i][e], enemyDamage[i][k][e]);
+            }
+        }
+    }
+
+    // The least the target takes over staying and each of its moves, with chooseShotTarget's hunker guess
+    static int guaranteedShot(Agent shooter, Agent target) {
+        boolean hunkered = target.cooldown > 0 && target.splash == 0 || shooter.distanceTo(target.x, target.y) > 2 * target.optimalRange;
+        int from = shooter.tileId();
+        Tile at = target.getPositionAsTile();
+        DamageTable table = shooter.damageTable();
+        double least = table.damage(from, at.id, hunkered);
+        for (int escape : at.neighborIds) {
+            least = Math.min(least, table.damage(from, escape, hunkered));
+        }
+        return (int) least;
+    }
+
+    // Value of dealing damage to an agent at the given wetness
+    static int value(int wetness, int damage) {
+        if (damage == 0) return 0;
+        int value = Math.min(damage, 100 - wetness);
+        if (wetness < 100 && wetness + damage >= 100) value += KILL_BONUS;
+        if (wetness < 50 && wetness + damage >= 50) value += HALF_BONUS;
+        return value;
+    }
+
+    private int teamValue(int[] enemyDamageTotal, int[] friendlyDamageTotal, int throwsUsed) {
+        int total = -THROW_COST * throwsUsed;
+        for (int e = 0; e < enemies.length; e++) total += value(enemies[e].wetness, enemyDamageTotal[e]);
+        for (int j = 0; j < mine.length; j++) total -= value(mine[j].wetness, friendlyDamageTotal[j]);
+        return total;
+    }
+
+    /**
+     * Fills the allocation, stopping early with the best found at the deadline, on the context's budget clock.
+     */
+    public void allocate(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+
+        // Baseline: each agent alone takes its single best option, ignoring the others
+        int[] alone = new int[mine.length];
+        for (int i = 0; i < mine.length; i++) {
+            int bestK = 0;
+            int bestAlone = Integer.MIN_VALUE;
+            for (int k = 0; k < optionType[i].length; k++) {
+                int v = teamValue(enemyDamage[i][k], friendlyDamage[i][k], optionType[i][k] == THROW ? 1 : 0);
+                if (v > bestAlone) {
+                    bestAlone = v;
+                    bestK = k;
+                }
+            }
+            alone[i] = bestK;
+        }
+        System.arraycopy(alone, 0, choice, 0, mine.length);
+        baselineValue = evaluate(choice);
+        bestValue = baselineValue;
+        System.arraycopy(choice, 0, best, 0, mine.length);
+
+        Arrays.fill(enemyTotal, 0);
+        Arrays.fill(friendlyTotal, 0);
+        complete = branch(0, 0);
+    }
+
+    private int evaluate(int[] picks) {
+        int[] dealt = new int[enemies.length];
+        int[] taken = new int[mine.length];
+        int throwsUsed = 0;
+        for (int i = 0; i < mine.length; i++) {
+            int k = picks[i];
+            for (int e = 0; e < enemies.length; e++) dealt[e] += enemyDamage[i][k][e];
+            for (int j = 0; j < mine.length; j++) taken[j] += friendlyDamage[i][k][j];
+            if (optionType[i][k] == THROW) throwsUsed++;
+        }
+        return teamValue(dealt, taken, throwsUsed);
+    }
+
+    // Best team value over every option combination without the bound, for PlannerCheck to hold branch and bound against
+    int exhaustiveValue() {
+        return enumerate(0, new int[mine.length]);
+    }
+
+    private int enumerate(int i, int[] picks) {
+        if (i == mine.length) return evaluate(picks);
+        int top = Integer.MIN_VALUE;
+        for (int k = 0; k < optionType[i].length; k++) {
+            picks[i] = k;
+            top = Math.max(top, enumerate(i + 1, picks));
+        }
+        return top;
+    }
+
+    public int value() {
+        return bestValue;
+    }
+
+    // Returns false if the deadline cut the search
+    private boolean branch(int i, int throwsUsed) {
+        if ((++nodes % TIME_CHECK_NODES) == 0 && ctx.budget.now() >= deadlineNanos) return false;
+        if (i == mine.length) {
+            int v = teamValue(enemyTotal, friendlyTotal, throwsUsed);
+            if (v > bestValue) {
+                bestValue = v;
+                System.arraycopy(choice, 0, best, 0, mine.length);
+            }
+            return true;
+        }
+
+        // Optimistic: every remaining agent hits every enemy as hard as it can, at no friendly or bomb cost
+        int bound = -THROW_COST * throwsUsed;
+        for (int e = 0; e < enemies.length; e++) {
+            int optimistic = enemyTotal[e];
+            for (int r = i; r < mine.length; r++) optimistic += maxEnemyDamage[r][e];
+            bound += value(enemies[e].wetness, optimistic);
+        }
+        for (int j = 0; j < mine.length; j++) bound -= value(mine[j].wetness, friendlyTotal[j]);
+        if (bound <= bestValue) return true;
+
+        for (int k = 0; k < optionType[i].length; k++) {
+            for (int e = 0; e < enemies.length; e++) enemyTotal[e] += enemyDamage[i][k][e];
+            for (int j = 0; j < mine.length; j++) friendlyTotal[j] += friendlyDamage[i][k][j];
+            choice[i] = k;
+            boolean finished = branch(i + 1, throwsUsed + (optionType[i][k] == THROW ? 1 : 0));
+            for (int e = 0; e < enemies.length; e++) enemyTotal[e] -= enemyDamage[i][k][e];
+            for (int j = 0; j < mine.length; j++) friendlyTotal[j] -= friendlyDamage[i][k][j];
+            if (!finished) return false;
+        }
+        return true;
+    }
+
+    // Combat command for my i-th agent, in the output format
+    public String command(int i) {
+        int k = best[i];
+        switch (optionType[i][k]) {
+            case SHOOT: return "SHOOT " + enemies[optionArg[i][k]].agentId + ";";
+            case THROW: return "THROW " + ctx.byId[optionArg[i][k]].x + " " + ctx.byId[optionArg[i][k]].y + ";";
+            default: return "HUNKER_DOWN;";
+        }
+    }
+
+    public String report() {
+        return String.format("Combat: value %d vs %d with independent choices, %d nodes, %s",
+                bestValue, baselineValue, nodes, complete ? "exact" : "cut at the deadline");
+    }
+}
@@ -0,0 +1,53 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Shot damage for one weapon profile (soaking power and optimal range) from every shooter tile to every target tile,
+ * hunkered and not, flattened as shooterTile * tileCount + targetTile.
+ * The map and the profiles never change during a game, so GameContext builds the tables with the map on the first turn and
+ * every shot score afterwards is one array read instead of the distance, cover and falloff rule.
+ * Damage is always a multiple of an eighth of the soaking power, so floats hold it exactly.
+ */
+public class DamageTable {
+    final int soakingPower;
+    final int optimalRange;
+    private final int tileCount;
+    private final float[] open;
+    private final float[] hunkered;
+
+    DamageTable(GameContext ctx, int soakingPower, int optimalRange) {
+        this.soakingPower = soakingPower;
+        this.optimalRange = optimalRange;
+        int n = ctx.tileCount;
+        tileCount = n;
+        open = new float[n * n];
+        hunkered = new float[n * n];
+        for (int shooter = 0; shooter < n; shooter++) {
+            int row = shooter * n;
+            for (int target = 0; target < n; target++) {
+                open[row + target] = (float) rule(ctx, soakingPower, optimalRange, shooter, target, false);
+                hunkered[row + target] = (float) rule(ctx, soakingPower, optimalRange, shooter, target, true);
+            }
+        }
+    }
+
+    public double damage(int shooterTile, int targetTile, boolean targetHunkered) {
+        return (targetHunkered ? hunkered : open)[shooterTile * tileCount + targetTile];
+    }
+
+    // The shot rule itself: cover on the target's side, 25% more off when hunkered, half damage up to twice the range
+    static double rule(GameContext ctx, int soakingPower, int optimalRange, int shooterTile, int targetTile, boolean hunkered) {
+        double reduction = 1 - ctx.coverPercent(targetTile, shooterTile) / 100.0; // Calculate the damage reduction for the target's tile
+        reduction -= hunkered ? 0.25 : 0;
+
+        int shootDistance = ctx.manhattan(shooterTile, targetTile);
+        if (shootDistance <= optimalRange) {
+            return soakingPower * reduction;
+        } else if (shootDistance <= optimalRange * 2) {
+            return (soakingPower / 2.0) * reduction;
+        }
+
+        return 0;
+    }
+}
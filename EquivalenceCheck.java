@@ -0,0 +1,320 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Local tool, not part of the submission. Holds the precomputed tables against the direct computations they replaced,
+ * on GameSetup maps, and fails on the first difference.
+ *
+ * cover: GameContext.coverReduction against the shadow sweep Tile.dmgReductionField ran per target tile, every
+ * orthogonal cover casting its value over the whole rows or columns behind it, then clearing the 3x3 around itself.
+ *
+ * splash: SplashGrid.bestTarget, on grids built from agents and from a GameState, and RolloutPolicy.chooseThrow
+ * against chooseBombTarget's scan that summed the escape-discounted hits and walk-in bonuses per center, on the
+ * clustered positions PlannerCheck plays.
+ *
+ * actions: ActionGenerator's best combat value per move tile against scoring every (move, combat) pair on its own:
+ * each shot from the damage rule with the hunker guess made from the move tile, and each blast center on the map the
+ * splash grid rates above the throw threshold and the move tile may legally throw at.
+ *
+ * damage: every weapon profile's DamageTable, open and hunkered, against calculateDamageShootingAt's formula on the
+ * swept cover: the cover and hunker reductions, full damage up to the optimal range and half up to twice that.
+ *
+ * bombing: GameContext.bombingPositions against the throwing rule on every pair of tiles, and nearestBombingPosition
+ * against the breadth-first search optimalBombingPosition ran from the agent, compared by path distance since
+ * equally near tiles may differ, on QUERIES random walkable starts and targets per map.
+ *
+ * Usage: java EquivalenceCheck cover [maps] [seed]
+ *        java EquivalenceCheck splash [positions] [seed]
+ *        java EquivalenceCheck actions [positions] [seed]
+ *        java EquivalenceCheck damage [maps] [seed]
+ *        java EquivalenceCheck bombing [maps] [seed]
+ */
+public class EquivalenceCheck {
+    static final int QUERIES = 2000; // Nearest bombing position queries per map
+
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "cover";
+        int maps = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        switch (mode) {
+            case "cover": cover(maps, seed); break;
+            case "splash": splash(maps, seed); break;
+            case "actions": actions(maps, seed); break;
+            case "damage": damage(maps, seed); break;
+            case "bombing": bombing(maps, seed); break;
+            default: throw new IllegalArgumentException("Unknown mode " + mode);
+        }
+    }
+
+    static void cover(int maps, long seed) {
+        long pairs = 0;
+        long covered = 0;
+        for (int m = 0; m < maps; m++) {
+            GameContext ctx = GameSetup.random(seed + m).context(0);
+            for (Tile target : ctx.byId) {
+                double[][] field = coverField(ctx, target);
+                for (Tile shooter : ctx.byId) {
+                    int expected = (int) Math.round(field[shooter.x][shooter.y] * 100);
+                    int actual = ctx.coverPercent(target.id, shooter.id);
+                    if (expected != actual) {
+                        throw new IllegalStateException("Map " + m + ": cover of " + target + " from " + shooter + " is " + actual + ", the sweep gives " + expected);
+                    }
+                    if (actual > 0) covered++;
+                    pairs++;
+                }
+            }
+        }
+        System.out.println("cover table matched the sweep on " + pairs + " pairs of " + maps + " maps, " + covered + " with cover");
+    }
+
+    // Damage reduction for a target on target from a shooter on every tile, by the sweep
+    static double[][] coverField(GameContext ctx, Tile target) {
+        double[][] field = new double[ctx.width][ctx.height];
+        for (int k = 0; k < 4; k++) {
+            int coverX = target.x + GameContext.DX[k];
+            int coverY = target.y + GameContext.DY[k];
+            if (coverX < 0 || coverX >= ctx.width || coverY < 0 || coverY >= ctx.height) continue;
+            Tile cover = ctx.map[coverX][coverY];
+            if (cover.value == 0) continue;
+            double reduction = cover.value == 2 ? 0.75 : 0.5;
+
+            // Everything behind the cover, seen from the target, spanning the whole perpendicular line
+            for (int x = coverX + GameContext.DX[k], y = coverY + GameContext.DY[k];
+                 x >= 0 && x < ctx.width && y >= 0 && y < ctx.height; x += GameContext.DX[k], y += GameContext.DY[k]) {
+                if (GameContext.DX[k] == 0) {
+                    for (int fixX = 0; fixX < ctx.width; fixX++) field[fixX][y] = Math.max(field[fixX][y], reduction);
+                } else {
+                    for (int fixY = 0; fixY < ctx.height; fixY++) field[x][fixY] = Math.max(field[x][fixY], reduction);
+                }
+            }
+
+            // Shooters right next to the cover get no protection from it
+            for (int x = coverX - 1; x <= coverX + 1; x++) {
+                for (int y = coverY - 1; y <= coverY + 1; y++) {
+                    if (x >= 0 && x < ctx.width && y >= 0 && y < ctx.height) field[x][y] = 0;
+                }
+            }
+        }
+        return field;
+    }
+
+    static void splash(int positions, long seed) {
+        Random random = new Random(seed);
+        int queries = 0;
+        int targets = 0;
+        for (int p = 0; p < positions; p++) {
+            GameContext ctx = PlannerCheck.position(seed + p, random);
+            List<Agent> all = new ArrayList<>(ctx.activeAgents.values());
+            GameState state = new GameState(ctx, all);
+            SplashGrid grid = new SplashGrid(ctx);
+            grid.build(all);
+            SplashGrid stateGrid = new SplashGrid(ctx);
+            stateGrid.build(state);
+
+            for (Agent a : all) {
+                int slot = state.slotOf(a.agentId);
+                for (double threshold : new double[] {0, CombatAllocator.THROW_THRESHOLD}) {
+                    int expected = scanThrow(ctx, a, all, threshold);
+                    int fromAgents = grid.bestTarget(a.tileId(), a.player, threshold);
+                    int fromState = stateGrid.bestTarget(a.tileId(), a.player, threshold);
+                    int rollout = RolloutPolicy.chooseThrow(state, stateGrid, slot, a.tileId(), threshold);
+                    if (fromAgents != expected || fromState != expected || rollout != (a.splash > 0 ? expected : -1)) {
+                        throw new IllegalStateException("Position " + p + ": agent " + a.agentId + " above " + threshold + " throws at " + fromAgents
+                                + " from agents, " + fromState + " from the state, " + rollout + " in rollouts, the scan gives " + expected);
+                    }
+                    if (expected >= 0) targets++;
+                    queries++;
+                }
+            }
+        }
+        System.out.println("splash grid matched the scan on " + queries + " queries of " + positions + " positions, " + targets + " with a target");
+    }
+
+    // Best blast center for thrower scoring above threshold, or -1, scanning the centers and agents one by one
+    static int scanThrow(GameContext ctx, Agent thrower, List<Agent> all, double threshold) {
+        int best = -1;
+        double bestScore = threshold;
+        int range = Agent.splashBombRange;
+        for (int dX = -range; dX <= range; dX++) {
+            for (int dY = -(range - Math.abs(dX)); dY <= range - Math.abs(dX); dY++) {
+                int cX = thrower.x + dX;
+                int cY = thrower.y + dY;
+                if (cX < 0 || cX >= ctx.width || cY < 0 || cY >= ctx.height) continue;
+                Tile center = ctx.map[cX][cY];
+                double score = 0;
+                for (Agent a : all) {
+                    if (!a.active) continue;
+                    Tile at = a.getPositionAsTile();
+                    if (at.bombDistanceTo(center) <= 1) {
+                        int escapes = 0;
+                        for (int escape : at.neighborIds) {
+                            if (ctx.byId[escape].bombDistanceTo(center) > 1) escapes++;
+                        }
+                        double damage = Agent.SPLASH_DAMAGE;
+                        if (escapes > 0) damage *= 0.45 / escapes;
+                        score += a.player == thrower.player ? -damage : damage;
+                    } else if (a.player != thrower.player && at.distanceTo(center) == 2) {
+                        score += Agent.SPLASH_DAMAGE * 0.15;
+                    }
+                }
+                if (score > bestScore) {
+                    best = center.id;
+                    bestScore = score;
+                }
+            }
+        }
+        return best;
+    }
+
+    static void actions(int positions, long seed) {
+        Random random = new Random(seed);
+        int rows = 0;
+        int withCombat = 0;
+        for (int p = 0; p < positions; p++) {
+            GameContext ctx = PlannerCheck.position(seed + p, random);
+            List<Agent> all = new ArrayList<>(ctx.activeAgents.values());
+            SplashGrid grid = new SplashGrid(ctx);
+            grid.build(all);
+
+            for (Agent me : ctx.playerAgents.values()) {
+                ActionGenerator actions = new ActionGenerator(me, all, grid);
+                for (int k = 0; k < actions.moveTiles.length; k++) {
+                    int expected = pairValue(ctx, me, ctx.byId[actions.moveTiles[k]], all, grid);
+                    if (actions.combatValue[k] != expected) {
+                        throw new IllegalStateException("Position " + p + ": agent " + me.agentId + " moving to " + ctx.byId[actions.moveTiles[k]]
+                                + " gets combat " + actions.combatValue[k] + ", the pairs give " + expected);
+                    }
+                    if (expected > 0) withCombat++;
+                    rows++;
+                }
+            }
+        }
+        System.out.println("action generator matched the pairs on " + rows + " move tiles of " + positions + " positions, " + withCombat + " with combat");
+    }
+
+    // Best value over hunkering, every shot and every throw for me after moving to moveTile
+    static int pairValue(GameContext ctx, Agent me, Tile moveTile, List<Agent> all, SplashGrid grid) {
+        int best = 0;
+        if (me.cooldown == 0) {
+            for (Agent enemy : all) {
+                if (!enemy.active || enemy.player == me.player) continue;
+                Tile at = enemy.getPositionAsTile();
+                int distance = moveTile.distanceTo(at);
+                if (distance > 2 * me.optimalRange) continue;
+                boolean hunkered = enemy.cooldown > 0 && enemy.splash == 0 || distance > 2 * enemy.optimalRange;
+                double least = DamageTable.rule(ctx, me.soakingPower, me.optimalRange, moveTile.id, at.id, hunkered);
+                for (int escape : at.neighborIds) {
+                    least = Math.min(least, DamageTable.rule(ctx, me.soakingPower, me.optimalRange, moveTile.id, escape, hunkered));
+                }
+                best = Math.max(best, CombatAllocator.value(enemy.wetness, (int) least));
+            }
+        }
+        if (me.splash > 0) {
+            for (Tile center : ctx.byId) {
+                if (grid.score(center.id, me.player) <= CombatAllocator.THROW_THRESHOLD || !legalThrow(moveTile, center)) continue;
+                int value = -CombatAllocator.THROW_COST;
+                for (Agent a : all) {
+                    if (!a.active || a == me || a.getPositionAsTile().bombDistanceTo(center) > 1) continue;
+                    value += (a.player == me.player ? -1 : 1) * CombatAllocator.value(a.wetness, Agent.SPLASH_DAMAGE);
+                }
+                best = Math.max(best, value);
+            }
+        }
+        return best;
+    }
+
+    // The throwing rule as isOkBombingPosition worked it out: within range, and not inside or diagonally touching the blast
+    static boolean legalThrow(Tile from, Tile center) {
+        int distance = center.distanceTo(from);
+        if (distance > Agent.splashBombRange || distance <= 1) return false;
+        return distance != 2 || Math.abs(center.x - from.x) != 1;
+    }
+
+    static void damage(int maps, long seed) {
+        long shots = 0;
+        for (int m = 0; m < maps; m++) {
+            GameContext ctx = GameSetup.random(seed + m).context(0);
+            Map<String, Agent> profiles = new LinkedHashMap<>(); // One agent per distinct soaking power and range
+            for (Agent a : ctx.activeAgents.values()) profiles.putIfAbsent(a.soakingPower + "/" + a.optimalRange, a);
+
+            for (Tile target : ctx.byId) {
+                double[][] field = coverField(ctx, target);
+                for (Agent a : profiles.values()) {
+                    DamageTable table = a.damageTable();
+                    for (Tile shooter : ctx.byId) {
+                        for (boolean hunkered : new boolean[] {false, true}) {
+                            double reduction = 1 - field[shooter.x][shooter.y] - (hunkered ? 0.25 : 0);
+                            int distance = shooter.distanceTo(target);
+                            double expected = distance <= a.optimalRange ? a.soakingPower * reduction
+                                    : distance <= 2 * a.optimalRange ? a.soakingPower / 2.0 * reduction : 0;
+                            double actual = table.damage(shooter.id, target.id, hunkered);
+                            if ((float) expected != actual) {
+                                throw new IllegalStateException("Map " + m + ": profile " + a.soakingPower + "/" + a.optimalRange + " from " + shooter + " at " + target
+                                        + (hunkered ? " hunkered" : "") + " deals " + actual + ", the formula gives " + expected);
+                            }
+                            shots++;
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println("damage tables matched the formula on " + shots + " shots of " + maps + " maps");
+    }
+
+    static void bombing(int maps, long seed) {
+        Random random = new Random(seed);
+        long pairs = 0;
+        int queries = 0;
+        int found = 0;
+        for (int m = 0; m < maps; m++) {
+            GameContext ctx = GameSetup.random(seed + m).context(0);
+            for (Tile from : ctx.byId) {
+                for (Tile center : ctx.byId) {
+                    if (Agent.isOkBombingPosition(from, center) != legalThrow(from, center)) {
+                        throw new IllegalStateException("Map " + m + ": throwing from " + from + " at " + center + " is " + Agent.isOkBombingPosition(from, center) + " in the index");
+                    }
+                    pairs++;
+                }
+            }
+
+            List<Tile> open = new ArrayList<>();
+            for (Tile t : ctx.byId) {
+                if (t.value == 0) open.add(t);
+            }
+            for (int q = 0; q < QUERIES; q++) {
+                Tile start = open.get(random.nextInt(open.size()));
+                Tile target = ctx.byId[random.nextInt(ctx.tileCount)];
+                Tile searched = searchBombingPosition(ctx, start, target);
+                int indexed = Agent.nearestBombingPosition(ctx, start.id, target.id);
+                int expected = searched == null ? -1 : ctx.pathDistance(start.id, searched.id);
+                int actual = indexed < 0 ? -1 : ctx.pathDistance(start.id, indexed);
+                if (expected != actual) {
+                    throw new IllegalStateException("Map " + m + ": nearest position from " + start + " for " + target + " is " + actual
+                            + " steps away in the index, the search finds " + searched + " " + expected + " steps away");
+                }
+                if (searched != null) found++;
+                queries++;
+            }
+        }
+        System.out.println("bombing index matched the rule on " + pairs + " pairs and the search on " + queries + " queries of " + maps + " maps, " + found + " with a position");
+    }
+
+    // Nearest tile a throw at target is legal from, breadth first from start over walkable tiles, or null
+    static Tile searchBombingPosition(GameContext ctx, Tile start, Tile target) {
+        boolean[] seen = new boolean[ctx.tileCount];
+        Deque<Tile> queue = new ArrayDeque<>();
+        queue.add(start);
+        seen[start.id] = true;
+        while (!queue.isEmpty()) {
+            Tile current = queue.poll();
+            if (legalThrow(current, target)) return current;
+            for (int next : current.neighborIds) {
+                if (seen[next]) continue;
+                seen[next] = true;
+                queue.add(ctx.byId[next]);
+            }
+        }
+        return null;
+    }
+}
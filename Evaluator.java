@@ -0,0 +1,44 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Static evaluation of a simulated state for the search planners: points already scored, current territory
+ * (what the next turns will score), wetness dealt and taken, and agents eliminated.
+ */
+public class Evaluator {
+    static final double W_SCORE = 1.0;
+    static final double W_TERRITORY = 3.0; // Roughly the turns of scoring a territory lead is worth
+    static final double W_WETNESS = 1.0;
+    static final double W_SOAKED = 25.0; // Agents at 50+ wetness count double distance for territory
+    static final double W_ALIVE = 120.0;
+    static final double SCALE = 150.0; // Raw values around this size map to a clear win/loss in normalized()
+
+    // Raw evaluation from player's point of view, positive is good for player
+    static double evaluate(GameState s, int player) {
+        double value = W_SCORE * (s.score[player] - s.score[1 - player]);
+
+        int territory = s.ctx.territory.territoryDiff(s.tile, s.player, s.wetness, s.count, s.alive);
+        value += W_TERRITORY * (player == 0 ? territory : -territory);
+
+        for (int i = 0; i < s.count; i++) {
+            double agentValue;
+            if (s.isAlive(i)) {
+                agentValue = W_ALIVE - W_WETNESS * s.wetness[i] - (s.wetness[i] >= 50 ? W_SOAKED : 0);
+            } else {
+                agentValue = 0;
+            }
+            value += s.player[i] == player ? agentValue : -agentValue;
+        }
+        return value;
+    }
+
+    // Evaluation squashed into [0, 1] for bandit statistics
+    static double normalized(GameState s, int player) {
+        return squash(evaluate(s, player));
+    }
+
+    static double squash(double value) {
+        return 0.5 + 0.5 * Math.tanh(value / SCALE);
+    }
+}
@@ -0,0 +1,245 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Everything one bot knows about one game: the map and every table precomputed from it, the agent registry and the
+ * side it plays. Nothing in here is shared between contexts, so several games, or both sides of the same game, can
+ * run on different threads of one JVM.
+ */
+public class GameContext {
+    static final int[] DX = {-1, 1, 0, 0};
+    static final int[] DY = {0, 0, -1, 1};
+
+    // Map, indexed by dense tile id (id = y * width + x)
+    Tile[][] map;
+    int width;
+    int height;
+    int tileCount;
+    Tile[] byId;
+    byte[] manhattanDistances; // Flat tileCount x tileCount table of Manhattan distances, row is the start tile
+    short[] pathDistances; // Flat tileCount x tileCount table, row is the start tile
+    byte[] coverReduction; // Flat tileCount x tileCount table of cover percent (0, 50, 75), row is the target tile, column the shooter tile
+
+    // Static bitboard layers, built by Bitboard.buildLayers
+    Bitboard all;
+    Bitboard walkable;
+    Bitboard notLeftEdge; // Clears x == 0 after a shift towards +x
+    Bitboard notRightEdge; // Clears x == width - 1 after a shift towards -x
+    Bitboard[] splashArea; // 3x3 block around each tile id, what a bomb landing there hits
+    Bitboard[] bombingPositions; // Tiles a throw at each target id is legal and not suicidal from
+
+    TerritoryCalculator territory;
+    MapAnalysis analysis;
+    final List<DamageTable> damageProfiles = new ArrayList<>(); // A handful per game, a list scan beats hashing
+
+    // Agents and sides
+    int playerId;
+    int enemyId;
+    int agentGameCount;
+    final HashMap<Integer, Agent> activeAgents = new HashMap<Integer, Agent>();
+    final HashMap<Integer, Agent> playerAgents = new HashMap<Integer, Agent>();
+    final HashMap<Integer, Agent> enemyAgents = new HashMap<Integer, Agent>();
+    Map<Integer, Tile> strategicGoals;
+
+    final TimeBudget budget = new TimeBudget();
+
+    // Scoring weights a bot spec can override for local tournaments, State's constants otherwise
+    double chokepointWeight = State.W_CHOKEPOINT;
+    double directionalCoverWeight = State.W_DIRECTIONAL_COVER;
+
+    public GameContext(int playerId) {
+        this.playerId = playerId;
+        this.enemyId = playerId == 0 ? 1 : 0;
+    }
+
+    /**
+     * Reads the initialization input and precomputes the map. The first turn's clock starts after the player id,
+     * so it includes reading the map and the precomputation.
+     */
+    public static GameContext read(Scanner in) {
+        int myId = in.nextInt(); // Your player id (0 or 1)
+        GameContext ctx = new GameContext(myId);
+        ctx.budget.start(true);
+
+        int agentDataCount = in.nextInt(); // Total number of agents in the game
+        ctx.agentGameCount = agentDataCount;
+        for (int i = 0; i < agentDataCount; i++) {
+            int agentId = in.nextInt(); // Unique identifier for this agent
+            int player = in.nextInt(); // Player id of this agent
+            int shootCooldown = in.nextInt(); // Number of turns between each of this agent's shots
+            int optimalRange = in.nextInt(); // Maximum manhattan distance for greatest damage output
+            int soakingPower = in.nextInt(); // Damage output within optimal conditions
+            int splashBombs = in.nextInt(); // Number of splash bombs this can throw this game
+
+            ctx.addAgent(agentId, player, shootCooldown, optimalRange, soakingPower, splashBombs);
+        }
+
+        int width = in.nextInt(); // Width of the game map
+        int height = in.nextInt(); // Height of the game map
+        Tile[][] grid = new Tile[width][height];
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                int x = in.nextInt(); // X coordinate, 0 is left edge
+                int y = in.nextInt(); // Y coordinate, 0 is top edge
+                int tileType = in.nextInt();
+                grid[x][y] = new Tile(x, y, tileType);
+            }
+        }
+
+        ctx.precomputeMap(grid);
+        return ctx;
+    }
+
+    // Registers one line of the initialization input's agent block
+    public Agent addAgent(int agentId, int player, int shootCooldown, int optimalRange, int soakingPower, int splashBombs) {
+        Agent agent = new Agent(this, player, agentId, shootCooldown, optimalRange, soakingPower, splashBombs, true);
+        if (player == playerId) {
+            playerAgents.put(agentId, agent);
+        } else {
+            enemyAgents.put(agentId, agent);
+        }
+        return agent;
+    }
+
+    // Every first-turn precomputation, in dependency order
+    void precomputeMap(Tile[][] grid) {
+        map = grid;
+        precomputeTileData(grid);
+        calculateAllPairsPathDistances();
+        Tile.buildCoverTable(this);
+        analysis = new MapAnalysis(this);
+        buildDamageProfiles();
+        territory = new TerritoryCalculator(this);
+    }
+
+    void buildDamageProfiles() {
+        damageProfiles.clear();
+        for (Agent a : activeAgents.values()) damageTable(a.soakingPower, a.optimalRange);
+    }
+
+    void precomputeTileData(Tile[][] grid) {
+        int rows = grid.length;
+        int cols = grid[0].length;
+
+        Tile.indexTiles(this, grid);
+        manhattanDistances = new byte[tileCount * tileCount];
+        for (Tile from : byId) {
+            for (Tile to : byId) manhattanDistances[from.id * tileCount + to.id] = (byte) from.distanceTo(to);
+        }
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                Tile currentTile = grid[i][j];
+
+                // Define potential neighbors (up, down, left, right)
+                int[] neighborIds = new int[4];
+                int neighborCount = 0;
+
+                for (int k = 0; k < 4; k++) {
+                    int newX = currentTile.x + DX[k];
+                    int newY = currentTile.y + DY[k];
+
+                    // Check if the neighbor is within grid bounds
+                    if (newX >= 0 && newX < rows && newY >= 0 && newY < cols) {
+                        Tile neighbor = grid[newX][newY];
+
+                        // Populate walkable neighbors if current tile is walkable
+                        if (currentTile.value == 0 && neighbor.value == 0) {
+                            currentTile.neighbors.add(neighbor);
+                            neighborIds[neighborCount++] = neighbor.id;
+                        }
+
+                        // Populate adjacent covers
+                        if (neighbor.value == 1 || neighbor.value == 2) {
+                            currentTile.covers.add(neighbor);
+                        }
+                    }
+                }
+
+                currentTile.neighborIds = Arrays.copyOf(neighborIds, neighborCount);
+            }
+        }
+
+        Bitboard.buildLayers(this);
+    }
+
+    /**
+     * Calculates the shortest path distance from every valid tile (value == 0) to every other reachable valid tile.
+     * Results are stored densely in pathDistances, Tile.UNREACHABLE marks walls and disconnected pairs.
+     */
+    void calculateAllPairsPathDistances() {
+        int n = tileCount;
+        short[] distances = new short[n * n];
+        Arrays.fill(distances, Tile.UNREACHABLE);
+
+        int[] queue = new int[n];
+
+        // Iterate over every tile in the grid to use it as a starting point
+        for (int start = 0; start < n; start++) {
+            // We only calculate paths from valid, unoccupied tiles (value == 0)
+            if (byId[start].value == 0) {
+                bfs(start, distances, start * n, queue);
+            }
+        }
+
+        pathDistances = distances;
+    }
+
+    // Performs a Breadth-First Search (BFS) over the pre-computed neighbor ids, writing into one row of the table.
+    private void bfs(int start, short[] distances, int row, int[] queue) {
+        int head = 0;
+        int tail = 0;
+
+        // The distance from the start tile to itself is 0
+        distances[row + start] = 0;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int current = queue[head++];
+            short next = (short) (distances[row + current] + 1);
+
+            // If the neighbor has not been visited yet, record its distance and add to the queue.
+            for (int neighbor : byId[current].neighborIds) {
+                if (distances[row + neighbor] == Tile.UNREACHABLE) {
+                    distances[row + neighbor] = next;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    // Marks every agent dead until the turn input brings it back
+    public void setDead() {
+        for (Agent a : activeAgents.values()) a.active = false;
+    }
+
+    public int manhattan(int fromId, int toId) {
+        return manhattanDistances[fromId * tileCount + toId];
+    }
+
+    // Returns Tile.UNREACHABLE if either tile is a wall or they are not connected
+    public int pathDistance(int fromId, int toId) {
+        return pathDistances[fromId * tileCount + toId];
+    }
+
+    // Percent of a shot's damage absorbed by cover for an agent on targetId shot from shooterId
+    public int coverPercent(int targetId, int shooterId) {
+        return coverReduction[targetId * tileCount + shooterId];
+    }
+
+    // Splash rule shared by the heuristics and the Simulator
+    public boolean inSplash(int centerTile, int tile) {
+        return splashArea[centerTile].get(tile);
+    }
+
+    // Table for a weapon profile, built on first use
+    public DamageTable damageTable(int soakingPower, int optimalRange) {
+        for (DamageTable table : damageProfiles) {
+            if (table.soakingPower == soakingPower && table.optimalRange == optimalRange) return table;
+        }
+        DamageTable table = new DamageTable(this, soakingPower, optimalRange);
+        damageProfiles.add(table);
+        return table;
+    }
+}
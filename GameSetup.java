@@ -0,0 +1,280 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Local tool, not part of the submission. Everything one game starts from: the tile types and each agent's profile and
+ * starting tile, generated from a seed within the statement's constraints, so a game can be replayed from its seed alone.
+ * Maps are mirrored left to right and player 1's agents mirror player 0's, ids ascending with player 0's team first.
+ * Cover comes as single blocks and short walls, at a density and high cover share drawn per map, and every open tile
+ * is reachable from both spawn columns. initText is the exact input GameContext.read expects, so the same seed feeds
+ * Referee, which builds contexts directly, and ProcessReferee, which sends the text.
+ *
+ * Usage: java GameSetup [seed] [player]      prints the initialization input
+ *        java GameSetup bench [count]         maps per second, and checks initText against the direct contexts
+ */
+public class GameSetup {
+    static final int MIN_WIDTH = 12;
+    static final int MAX_WIDTH = 20;
+    static final int MIN_HEIGHT = 6;
+    static final int MAX_HEIGHT = 10;
+    static final int MIN_TEAM = 3;
+    static final int MAX_TEAM = 5;
+    static final double MIN_COVER_DENSITY = 0.05; // Share of the tiles holding cover
+    static final double MAX_COVER_DENSITY = 0.2;
+    static final double MIN_HIGH_SHARE = 0.3; // Share of the cover that is high
+    static final double MAX_HIGH_SHARE = 0.6;
+    static final double WALL_CHANCE = 0.4; // A cover piece is a 2 or 3 tile wall instead of one block
+    static final int MAX_ATTEMPTS = 20; // Layouts splitting the spawn columns apart are drawn again
+
+    // Agent classes: shoot cooldown, optimal range, soaking power, splash bombs
+    static final int[][] PROFILES = {
+            {1, 4, 16, 1}, // Gunner
+            {5, 6, 24, 0}, // Sniper
+            {2, 2, 8, 4}, // Bomber
+            {2, 4, 16, 2}, // Assault
+            {5, 2, 32, 1}, // Berserker
+    };
+
+    final long seed;
+    final int width;
+    final int height;
+    final int[][] tileType; // [x][y]
+
+    final int agentCount;
+    final int[] agentId;
+    final int[] player;
+    final int[] shootCooldown;
+    final int[] optimalRange;
+    final int[] soakingPower;
+    final int[] splashBombs;
+    final int[] startX;
+    final int[] startY;
+
+    private GameSetup(long seed, int width, int height, int agentCount) {
+        this.seed = seed;
+        this.width = width;
+        this.height = height;
+        this.tileType = new int[width][height];
+        this.agentCount = agentCount;
+        agentId = new int[agentCount];
+        player = new int[agentCount];
+        shootCooldown = new int[agentCount];
+        optimalRange = new int[agentCount];
+        soakingPower = new int[agentCount];
+        splashBombs = new int[agentCount];
+        startX = new int[agentCount];
+        startY = new int[agentCount];
+    }
+
+    public static GameSetup random(long seed) {
+        return random(seed, -1, -1, -1);
+    }
+
+    // Fixed width, height or cover density where given, drawn like random(seed) where negative
+    public static GameSetup random(long seed, int fixedWidth, int fixedHeight, double fixedDensity) {
+        Random random = new Random(seed);
+        int width = fixedWidth >= 0 ? fixedWidth : MIN_WIDTH + random.nextInt(MAX_WIDTH - MIN_WIDTH + 1);
+        int height = fixedHeight >= 0 ? fixedHeight : MIN_HEIGHT + random.nextInt(MAX_HEIGHT - MIN_HEIGHT + 1);
+        int team = MIN_TEAM + random.nextInt(MAX_TEAM - MIN_TEAM + 1);
+        GameSetup setup = new GameSetup(seed, width, height, 2 * team);
+
+        boolean connected = false;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && !connected; attempt++) {
+            setup.placeCover(random, fixedDensity);
+            connected = setup.sealPockets();
+        }
+        if (!connected) {
+            for (int[] column : setup.tileType) Arrays.fill(column, 0);
+        }
+
+        // Distinct rows on the edge columns
+        List<Integer> rows = new ArrayList<>();
+        for (int y = 0; y < height; y++) rows.add(y);
+        Collections.shuffle(rows, random);
+        for (int i = 0; i < team; i++) {
+            int[] profile = PROFILES[random.nextInt(PROFILES.length)];
+            setup.setAgent(i, 0, profile, 0, rows.get(i));
+            setup.setAgent(team + i, 1, profile, width - 1, rows.get(i));
+        }
+        return setup;
+    }
+
+    // Cover on the left half and the middle column, mirrored, the spawn columns stay open
+    private void placeCover(Random random, double fixedDensity) {
+        for (int[] column : tileType) Arrays.fill(column, 0);
+        double density = fixedDensity >= 0 ? fixedDensity : MIN_COVER_DENSITY + random.nextDouble() * (MAX_COVER_DENSITY - MIN_COVER_DENSITY);
+        double highShare = MIN_HIGH_SHARE + random.nextDouble() * (MAX_HIGH_SHARE - MIN_HIGH_SHARE);
+        int half = (width + 1) / 2;
+        int target = (int) Math.round(density * (half - 1) * height);
+        int placed = 0;
+        while (placed < target) {
+            int type = random.nextDouble() < highShare ? 2 : 1;
+            int length = random.nextDouble() < WALL_CHANCE ? 2 + random.nextInt(2) : 1;
+            boolean vertical = random.nextBoolean();
+            int x = 1 + random.nextInt(half - 1);
+            int y = random.nextInt(height);
+            for (int k = 0; k < length && placed < target; k++) {
+                int cX = vertical ? x : x + k;
+                int cY = vertical ? y + k : y;
+                if (cX >= half || cY >= height || tileType[cX][cY] != 0) break;
+                tileType[cX][cY] = type;
+                tileType[width - 1 - cX][cY] = type;
+                placed++;
+            }
+        }
+    }
+
+    /**
+     * Turns open tiles no spawn can reach into low cover. Returns false if the two spawn columns aren't connected,
+     * the layout is then drawn again. The map is mirrored, so what stays open is too.
+     */
+    private boolean sealPockets() {
+        boolean[] reached = new boolean[width * height];
+        int[] queue = new int[width * height];
+        int tail = 0;
+        for (int y = 0; y < height; y++) {
+            reached[y * width] = true;
+            queue[tail++] = y * width;
+        }
+        for (int head = 0; head < tail; head++) {
+            int x = queue[head] % width;
+            int y = queue[head] / width;
+            for (int k = 0; k < 4; k++) {
+                int nX = x + GameContext.DX[k];
+                int nY = y + GameContext.DY[k];
+                if (nX < 0 || nX >= width || nY < 0 || nY >= height || tileType[nX][nY] != 0) continue;
+                int id = nY * width + nX;
+                if (reached[id]) continue;
+                reached[id] = true;
+                queue[tail++] = id;
+            }
+        }
+        if (!reached[width - 1]) return false;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (tileType[x][y] == 0 && !reached[y * width + x]) tileType[x][y] = 1;
+            }
+        }
+        return true;
+    }
+
+    private void setAgent(int i, int owner, int[] profile, int x, int y) {
+        agentId[i] = i + 1;
+        player[i] = owner;
+        shootCooldown[i] = profile[0];
+        optimalRange[i] = profile[1];
+        soakingPower[i] = profile[2];
+        splashBombs[i] = profile[3];
+        startX[i] = x;
+        startY[i] = y;
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("bench")) {
+            bench(args.length > 1 ? Integer.parseInt(args[1]) : 10000);
+            return;
+        }
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        int player = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        System.out.print(random(seed).initText(player));
+    }
+
+    static void bench(int count) {
+        long checksum = 0;
+        for (int i = 0; i < count; i++) checksum += random(i).agentCount; // Warmup
+
+        long start = System.nanoTime();
+        int[] covers = new int[3];
+        for (int i = 0; i < count; i++) {
+            GameSetup setup = random(i);
+            for (int[] column : setup.tileType) {
+                for (int type : column) covers[type]++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d maps in %.3f s, %.0f maps/s%n", count, seconds, count / seconds);
+
+        start = System.nanoTime();
+        for (int i = 0; i < count; i++) checksum += random(i).initText(i % 2).length();
+        seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d maps with init text in %.3f s, %.0f maps/s (checksum %d)%n", count, seconds, count / seconds, checksum);
+
+        int tiles = covers[0] + covers[1] + covers[2];
+        System.out.printf("cover on %.1f%% of the tiles, %.1f%% of it high%n",
+                100.0 * (covers[1] + covers[2]) / tiles, 100.0 * covers[2] / Math.max(1, covers[1] + covers[2]));
+
+        // The text path and the direct path must give the bots the same game
+        int checked = Math.min(count, 200);
+        for (int i = 0; i < checked; i++) {
+            GameSetup setup = random(i);
+            for (int p = 0; p < 2; p++) {
+                GameContext direct = setup.context(p);
+                GameContext parsed = GameContext.read(new Scanner(setup.initText(p)));
+                if (!sameGame(direct, parsed)) throw new IllegalStateException("initText differs from the direct context for seed " + i);
+            }
+        }
+        System.out.println("initText matched the direct context on " + checked + " seeds");
+    }
+
+    private static boolean sameGame(GameContext a, GameContext b) {
+        if (a.playerId != b.playerId || a.width != b.width || a.height != b.height || a.agentGameCount != b.agentGameCount) return false;
+        if (!Arrays.equals(a.pathDistances, b.pathDistances) || !Arrays.equals(a.coverReduction, b.coverReduction)) return false;
+        if (!a.playerAgents.keySet().equals(b.playerAgents.keySet())) return false;
+        for (Agent x : a.activeAgents.values()) {
+            Agent y = b.activeAgents.get(x.agentId);
+            if (y == null || x.player != y.player || x.shootCooldown != y.shootCooldown || x.optimalRange != y.optimalRange
+                    || x.soakingPower != y.soakingPower || x.splashBombs != y.splashBombs) return false;
+        }
+        return true;
+    }
+
+    // The initialization input for playerId, row by row like the referee sends it
+    public String initText(int playerId) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(playerId).append('\n');
+        sb.append(agentCount).append('\n');
+        for (int i = 0; i < agentCount; i++) {
+            sb.append(agentId[i]).append(' ').append(player[i]).append(' ').append(shootCooldown[i]).append(' ')
+                    .append(optimalRange[i]).append(' ').append(soakingPower[i]).append(' ').append(splashBombs[i]).append('\n');
+        }
+        sb.append(width).append(' ').append(height).append('\n');
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                sb.append(x).append(' ').append(y).append(' ').append(tileType[x][y]).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The context a bot playing playerId builds from this game's initialization input, with the first turn's clock started
+     * the way GameContext.read starts it.
+     */
+    public GameContext context(int playerId) {
+        GameContext ctx = new GameContext(playerId);
+        ctx.budget.start(true);
+        addAgents(ctx);
+        ctx.precomputeMap(grid());
+        return ctx;
+    }
+
+    // The agent block of the initialization input, registered on ctx
+    void addAgents(GameContext ctx) {
+        ctx.agentGameCount = agentCount;
+        for (int i = 0; i < agentCount; i++) {
+            ctx.addAgent(agentId[i], player[i], shootCooldown[i], optimalRange[i], soakingPower[i], splashBombs[i]);
+        }
+    }
+
+    // Fresh tiles for the map, not yet indexed
+    Tile[][] grid() {
+        Tile[][] grid = new Tile[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                grid[x][y] = new Tile(x, y, tileType[x][y]);
+            }
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,142 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Compact game state for simulation, one slot per agent in parallel primitive arrays.
+ * Per-game constants (ids, owners, weapon stats) are shared between copies, only the turn by turn values are owned.
+ */
+public class GameState {
+    public static final int MAX_AGENTS = 10;
+
+    final GameContext ctx;
+
+    // Per-game constants, indexed by slot
+    final int count;
+    final int[] agentId;
+    final int[] player;
+    final int[] shootCooldown;
+    final int[] optimalRange;
+    final int[] soakingPower;
+    final DamageTable[] damageTable;
+
+    // Turn by turn values, indexed by slot
+    final int[] tile; // Dense tile id
+    final int[] cooldown;
+    final int[] splash;
+    final int[] wetness;
+    long alive; // Bit i set while slot i is in play
+
+    final int[] score = new int[2]; // Indexed by player id
+    int turn;
+    long hash; // Zobrist key, kept incrementally by the Simulator
+
+    public GameState(GameContext ctx, Collection<Agent> agents) {
+        this.ctx = ctx;
+        List<Agent> sorted = new ArrayList<>(agents);
+        sorted.sort(Comparator.comparingInt(a -> a.agentId));
+
+        count = sorted.size();
+        agentId = new int[count];
+        player = new int[count];
+        shootCooldown = new int[count];
+        optimalRange = new int[count];
+        soakingPower = new int[count];
+        damageTable = new DamageTable[count];
+        tile = new int[count];
+        cooldown = new int[count];
+        splash = new int[count];
+        wetness = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            Agent a = sorted.get(i);
+            agentId[i] = a.agentId;
+            player[i] = a.player;
+            shootCooldown[i] = a.shootCooldown;
+            optimalRange[i] = a.optimalRange;
+            soakingPower[i] = a.soakingPower;
+            damageTable[i] = a.damageTable();
+            tile[i] = a.tileId();
+            cooldown[i] = a.cooldown;
+            splash[i] = a.splash;
+            wetness[i] = a.wetness;
+            if (a.active) alive |= 1L << i;
+        }
+        rehash();
+    }
+
+    // Copy sharing the per-game arrays
+    public GameState(GameState o) {
+        ctx = o.ctx;
+        count = o.count;
+        agentId = o.agentId;
+        player = o.player;
+        shootCooldown = o.shootCooldown;
+        optimalRange = o.optimalRange;
+        soakingPower = o.soakingPower;
+        damageTable = o.damageTable;
+        tile = new int[count];
+        cooldown = new int[count];
+        splash = new int[count];
+        wetness = new int[count];
+        o.copyInto(this);
+    }
+
+    /**
+     * Overwrites the turn by turn values of dst with this state's. Both must come from the same game.
+     */
+    public void copyInto(GameState dst) {
+        System.arraycopy(tile, 0, dst.tile, 0, count);
+        System.arraycopy(cooldown, 0, dst.cooldown, 0, count);
+        System.arraycopy(splash, 0, dst.splash, 0, count);
+        System.arraycopy(wetness, 0, dst.wetness, 0, count);
+        dst.alive = alive;
+        dst.score[0] = score[0];
+        dst.score[1] = score[1];
+        dst.turn = turn;
+        dst.hash = hash;
+    }
+
+    // Recomputes the Zobrist key after the state was edited outside the Simulator
+    public void rehash() {
+        if (Zobrist.position != null) hash = Zobrist.hash(this);
+    }
+
+    public boolean isAlive(int slot) {
+        return (alive & (1L << slot)) != 0;
+    }
+
+    // Slot of an agent id, or -1
+    public int slotOf(int id) {
+        for (int i = 0; i < count; i++) {
+            if (agentId[i] == id) return i;
+        }
+        return -1;
+    }
+
+    // Equality over the turn by turn values, states from different games are never equal
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        GameState o = (GameState) obj;
+        return agentId == o.agentId && alive == o.alive && turn == o.turn
+                && Arrays.equals(score, o.score)
+                && Arrays.equals(tile, o.tile)
+                && Arrays.equals(cooldown, o.cooldown)
+                && Arrays.equals(splash, o.splash)
+                && Arrays.equals(wetness, o.wetness);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = Long.hashCode(alive);
+        h = 31 * h + turn;
+        h = 31 * h + Arrays.hashCode(score);
+        h = 31 * h + Arrays.hashCode(tile);
+        h = 31 * h + Arrays.hashCode(cooldown);
+        h = 31 * h + Arrays.hashCode(splash);
+        h = 31 * h + Arrays.hashCode(wetness);
+        return h;
+    }
+}
@@ -0,0 +1,254 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Improves the greedy one-agent-at-a-time move assignment by scoring whole team configurations.
+ * The joint score is the sum of each agent's own evaluateMove terms (safety, predicted splash, strategic goal, focus fire, combat, terrain),
+ * the splash cluster penalties between the final tiles, and the real territory change of the whole configuration.
+ * Iterated best response from the greedy moves runs first. Then a branch and bound search over every joint move runs
+ * until the deadline, which finishes for small teams and is cut short for large ones.
+ */
+public class JointMoveOptimizer {
+    private final State state;
+    private final GameContext ctx;
+    private final int count;
+    private final Agent[] agents;
+    private final int[] slots;
+    private final int[][] candidates; // Candidate tile ids per agent, best unary score first
+    private final double[][] unary;
+    private final double[] bestUnaryFrom; // Sum of each remaining agent's best unary score, from agent i on
+    private final double territoryWeight;
+
+    // Closest enemy distance per tile, enemies don't move while planning
+    private final int[] enemyClosest;
+    private final int[] myClosest;
+    private final int baseTerritory;
+
+    private final int[] current; // Tile per agent in the configuration being scored
+    private final int[] best;
+    private double bestScore;
+    private double greedyScore;
+
+    long evaluated;
+    boolean exhaustive; // True once branch and bound finished, so best is the optimum of the joint score
+    private long deadlineNanos;
+    private boolean outOfTime;
+
+    public JointMoveOptimizer(State state, List<Agent> myAgents, double agentAdvantage, Agent teamTarget, Map<Integer, Tile> goals, int turnCounter) {
+        this.state = state;
+        this.ctx = state.ctx;
+        this.count = myAgents.size();
+        this.agents = myAgents.toArray(new Agent[0]);
+        this.slots = new int[count];
+        this.candidates = new int[count][];
+        this.unary = new double[count][];
+        this.bestUnaryFrom = new double[count + 1];
+        this.territoryWeight = State.territoryWeight(agentAdvantage);
+        this.current = new int[count];
+        this.best = new int[count];
+
+        GameState game = state.game;
+        for (int i = 0; i < count; i++) {
+            Agent agent = agents[i];
+            slots[i] = game.slotOf(agent.agentId);
+            Tile from = agent.getPositionAsTile();
+            Tile goal = goals == null ? null : goals.get(agent.agentId);
+
+            Integer[] order = new Integer[from.neighborIds.length + 1];
+            double[] scores = new double[order.length];
+            int[] tiles = new int[order.length];
+            for (int k = 0; k < order.length; k++) {
+                Tile moveTile = k == 0 ? from : ctx.byId[from.neighborIds[k - 1]];
+                tiles[k] = moveTile.id;
+                scores[k] = state.safetyScore(agent, slots[i], moveTile) + state.bombAreaScore(agent, moveTile)
+                        + State.strategicScore(agent, moveTile, goal, turnCounter) + State.teamworkScore(agent, moveTile, teamTarget, agentAdvantage)
+                        + state.combatScore(slots[i], moveTile) + state.terrainScore(moveTile);
+                order[k] = k;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+            candidates[i] = new int[order.length];
+            unary[i] = new double[order.length];
+            for (int k = 0; k < order.length; k++) {
+                candidates[i][k] = tiles[order[k]];
+                unary[i][k] = scores[order[k]];
+            }
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            bestUnaryFrom[i] = bestUnaryFrom[i + 1] + unary[i][0];
+        }
+
+        int n = ctx.tileCount;
+        enemyClosest = new int[n];
+        myClosest = new int[n];
+        Arrays.fill(enemyClosest, Integer.MAX_VALUE);
+        Arrays.fill(myClosest, Integer.MAX_VALUE);
+        for (int s = 0; s < game.count; s++) {
+            if (!game.isAlive(s)) continue;
+            ctx.territory.relaxClosest(game.player[s] == ctx.playerId ? myClosest : enemyClosest, game.tile[s], game.wetness[s]);
+        }
+        baseTerritory = TerritoryCalculator.compareClosest(myClosest, enemyClosest);
+    }
+
+    /**
+     * Returns the best joint moves found before the deadline on the context's budget clock, never worse than greedy
+     * under the joint score.
+     */
+    public List<State.Action> optimize(List<State.Action> greedy, long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+        for (int i = 0; i < count; i++) {
+            current[i] = agents[i].getPositionAsTile().id;
+            for (State.Action a : greedy) {
+                if (a.agentId == agents[i].agentId) current[i] = a.moveTarget.id;
+            }
+        }
+        greedyScore = score(current);
+        bestScore = greedyScore;
+        System.arraycopy(current, 0, best, 0, count);
+
+        bestResponse();
+        if (!outOfTime) {
+            branch(0, 0);
+            exhaustive = !outOfTime;
+        }
+
+        List<State.Action> plan = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            plan.add(new State.Action(agents[i].agentId, ctx.byId[best[i]]));
+        }
+        return plan;
+    }
+
+    public double gain() {
+        return bestScore - greedyScore;
+    }
+
+    public double bestScore() {
+        return bestScore;
+    }
+
+    public String report() {
+        return String.format("Joint moves: greedy %.1f, best %.1f, gain %.1f, %d configurations, %s",
+                greedyScore, bestScore, gain(), evaluated, exhaustive ? "exhaustive" : "cut at the deadline");
+    }
+
+    private boolean expired() {
+        if (!outOfTime && ctx.budget.now() >= deadlineNanos) outOfTime = true;
+        return outOfTime;
+    }
+
+    // Coordinate descent: move one agent at a time to its best tile given the others, until nobody wants to move
+    private void bestResponse() {
+        System.arraycopy(best, 0, current, 0, count);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < count; i++) {
+                int keep = current[i];
+                for (int tile : candidates[i]) {
+                    if (tile == keep || taken(tile, i, count)) continue;
+                    current[i] = tile;
+                    double score = score(current);
+                    if (score > bestScore + 1e-9) {
+                        bestScore = score;
+                        System.arraycopy(current, 0, best, 0, count);
+                        keep = tile;
+                        improved = true;
+                    }
+                }
+                current[i] = keep;
+            }
+            if (expired()) return;
+        }
+    }
+
+    // Branch and bound over agents in order, with every remaining agent optimistically on all of its candidates at once
+    private void branch(int i, double partialUnary) {
+        if (expired()) return;
+        if (i == count) {
+            double score = score(current);
+            if (score > bestScore + 1e-9) {
+                bestScore = score;
+                System.arraycopy(current, 0, best, 0, count);
+            }
+            return;
+        }
+        if (partialUnary + bestUnaryFrom[i] + clusterPenalty(current, i) + territoryWeight * (territoryBound(i) - baseTerritory) <= bestScore + 1e-9) return;
+
+        for (int k = 0; k < candidates[i].length; k++) {
+            int tile = candidates[i][k];
+            if (taken(tile, i, i)) continue;
+            current[i] = tile;
+            branch(i + 1, partialUnary + unary[i][k]);
+        }
+    }
+
+    // Best joint score over every configuration without any bound, for PlannerCheck to hold branch and bound against
+    double exhaustiveScore() {
+        return enumerate(0);
+    }
+
+    private double enumerate(int i) {
+        if (i == count) return score(current);
+        double top = Double.NEGATIVE_INFINITY;
+        for (int tile : candidates[i]) {
+            if (taken(tile, i, i)) continue;
+            current[i] = tile;
+            top = Math.max(top, enumerate(i + 1));
+        }
+        return top;
+    }
+
+    private boolean taken(int tile, int agent, int upTo) {
+        for (int j = 0; j < upTo; j++) {
+            if (j != agent && current[j] == tile) return true;
+        }
+        return false;
+    }
+
+    private double score(int[] tiles) {
+        evaluated++;
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            int k = 0;
+            while (candidates[i][k] != tiles[i]) k++;
+            total += unary[i][k];
+        }
+        total += clusterPenalty(tiles, count);
+        total += territoryWeight * (territory(tiles, count, count) - baseTerritory);
+        return total;
+    }
+
+    // Cluster penalties between the first assigned agents, each agent paying for every teammate within a blast's reach
+    private double clusterPenalty(int[] tiles, int assigned) {
+        double penalty = 0;
+        for (int i = 0; i < assigned; i++) {
+            int bombers = state.threats.bombReach[tiles[i]];
+            if (bombers == 0) continue;
+            Tile at = ctx.byId[tiles[i]];
+            for (int j = 0; j < assigned; j++) {
+                if (j != i && at.bombDistanceTo(ctx.byId[tiles[j]]) <= 2) penalty += State.W_SPLASH_CLUSTER * bombers;
+            }
+        }
+        return penalty;
+    }
+
+    // My territory lead with the first assigned agents on their tiles and the rest on every candidate at once.
+    // Extra positions can only bring my closest distances down, so this bounds every completion from above.
+    private int territoryBound(int assigned) {
+        return territory(current, assigned, count);
+    }
+
+    private int territory(int[] tiles, int assigned, int upTo) {
+        Arrays.fill(myClosest, Integer.MAX_VALUE);
+        for (int i = 0; i < upTo; i++) {
+            int wetness = agents[i].wetness;
+            if (i < assigned) {
+                ctx.territory.relaxClosest(myClosest, tiles[i], wetness);
+            } else {
+                for (int tile : candidates[i]) ctx.territory.relaxClosest(myClosest, tile, wetness);
+            }
+        }
+        return TerritoryCalculator.compareClosest(myClosest, enemyClosest);
+    }
+}
@@ -0,0 +1,178 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * One pass over the static map on the first turn, stored in flat arrays by tile id:
+ * the nearest walkable tile, the chokepoints of the walkable graph, the cover a tile offers against each direction and
+ * the weighted neighborhood the move scoring's cover lookahead sums over.
+ */
+public class MapAnalysis {
+    // Neighbor order of the original findNearestWalkable search, which decides between equally near tiles
+    private static final int[] SEARCH_DX = {0, 0, 1, -1};
+    private static final int[] SEARCH_DY = {1, -1, 0, 0};
+
+    // Directions a shot can come from
+    static final int WEST = 0;
+    static final int EAST = 1;
+    static final int NORTH = 2;
+    static final int SOUTH = 3;
+
+    final int[] nearestWalkable; // Walkable tile with the least Manhattan distance, ties in the original search order, itself if walkable
+    final Bitboard chokepoints; // Walkable tiles whose loss splits the walkable tiles around them (articulation points)
+    final byte[] directionalCover; // Cover percent against shots from each direction, flattened as tile * 4 + direction
+
+    // Cover lookahead: the tile at weight 1, its neighbors at 1/2 and their neighbors at 1/3, counted once per path.
+    // Row t spans lookaheadStart[t] until lookaheadStart[t + 1].
+    int[] lookaheadStart;
+    int[] lookaheadTile;
+    float[] lookaheadWeight;
+
+    private final GameContext ctx;
+
+    // Tarjan scratch
+    private int[] order;
+    private int[] low;
+    private int counter;
+
+    public MapAnalysis(GameContext ctx) {
+        this.ctx = ctx;
+        int n = ctx.tileCount;
+        nearestWalkable = new int[n];
+        chokepoints = new Bitboard();
+        directionalCover = new byte[n * 4];
+        buildNearestWalkable();
+        buildChokepoints(n);
+        buildDirectionalCover();
+        buildLookahead(n);
+    }
+
+    private void buildNearestWalkable() {
+        int[] queue = new int[ctx.tileCount];
+        int[] seen = new int[ctx.tileCount]; // Start id + 1 of the last search that reached the tile
+        for (Tile start : ctx.byId) {
+            nearestWalkable[start.id] = start.value == 0 ? start.id : searchWalkable(start, queue, seen);
+        }
+    }
+
+    // Breadth first through every tile, walls included, returning the first walkable tile discovered
+    private int searchWalkable(Tile start, int[] queue, int[] seen) {
+        int mark = start.id + 1;
+        int tail = 0;
+        queue[tail++] = start.id;
+        seen[start.id] = mark;
+        for (int head = 0; head < tail; head++) {
+            Tile current = ctx.byId[queue[head]];
+            for (int k = 0; k < 4; k++) {
+                int x = current.x + SEARCH_DX[k];
+                int y = current.y + SEARCH_DY[k];
+                if (x < 0 || x >= ctx.width || y < 0 || y >= ctx.height) continue;
+                int next = y * ctx.width + x;
+                if (seen[next] == mark) continue;
+                if (ctx.byId[next].value == 0) return next;
+                seen[next] = mark;
+                queue[tail++] = next;
+            }
+        }
+        return start.id; // A map without walkable tiles keeps every tile on itself
+    }
+
+    private void buildChokepoints(int n) {
+        order = new int[n];
+        low = new int[n];
+        counter = 0;
+        for (Tile t : ctx.byId) {
+            if (t.value == 0 && order[t.id] == 0) visit(t.id, -1);
+        }
+    }
+
+    // Depth first search numbering, low[] is the earliest tile reachable through one back edge
+    private void visit(int tile, int parent) {
+        order[tile] = low[tile] = ++counter;
+        int children = 0;
+        for (int next : ctx.byId[tile].neighborIds) {
+            if (order[next] == 0) {
+                children++;
+                visit(next, tile);
+                low[tile] = Math.min(low[tile], low[next]);
+                if (parent >= 0 && low[next] >= order[tile]) chokepoints.set(tile);
+            } else if (next != parent) {
+                low[tile] = Math.min(low[tile], order[next]);
+            }
+        }
+        if (parent < 0 && children > 1) chokepoints.set(tile);
+    }
+
+    private void buildDirectionalCover() {
+        for (Tile t : ctx.byId) {
+            for (int d = 0; d < 4; d++) {
+                int x = t.x + GameContext.DX[d];
+                int y = t.y + GameContext.DY[d];
+                if (x < 0 || x >= ctx.width || y < 0 || y >= ctx.height) continue;
+                directionalCover[t.id * 4 + d] = (byte) Tile.coverPercentOf(ctx.map[x][y].value);
+            }
+        }
+    }
+
+    // Side of tile facing a shooter on shooterTile, the longer axis of the offset, the horizontal one on ties
+    public int facing(int tile, int shooterTile) {
+        int dx = ctx.byId[shooterTile].x - ctx.byId[tile].x;
+        int dy = ctx.byId[shooterTile].y - ctx.byId[tile].y;
+        if (Math.abs(dx) >= Math.abs(dy)) return dx < 0 ? WEST : EAST;
+        return dy < 0 ? NORTH : SOUTH;
+    }
+
+    // Cover percent of the wall on the side of tile facing shooterTile
+    public int coverFacing(int tile, int shooterTile) {
+        return directionalCover[tile * 4 + facing(tile, shooterTile)];
+    }
+
+    private void buildLookahead(int n) {
+        lookaheadStart = new int[n + 1];
+        List<Integer> tiles = new ArrayList<>();
+        List<Float> weights = new ArrayList<>();
+        double[] weight = new double[n];
+        List<Integer> touched = new ArrayList<>();
+
+        for (Tile t : ctx.byId) {
+            lookaheadStart[t.id] = tiles.size();
+            touched.clear();
+            touched.add(t.id);
+            weight[t.id] += 1;
+            for (int next : t.neighborIds) {
+                if (weight[next] == 0) touched.add(next);
+                weight[next] += 1 / 2.0;
+                for (int nextNext : ctx.byId[next].neighborIds) {
+                    if (weight[nextNext] == 0) touched.add(nextNext);
+                    weight[nextNext] += 1 / 3.0;
+                }
+            }
+            for (int tile : touched) {
+                tiles.add(tile);
+                weights.add((float) weight[tile]);
+                weight[tile] = 0;
+            }
+        }
+        lookaheadStart[n] = tiles.size();
+
+        lookaheadTile = new int[tiles.size()];
+        lookaheadWeight = new float[tiles.size()];
+        for (int i = 0; i < lookaheadTile.length; i++) {
+            lookaheadTile[i] = tiles.get(i);
+            lookaheadWeight[i] = weights.get(i);
+        }
+    }
+
+    // Sum of a per-tile layer over tile's lookahead neighborhood
+    public float lookahead(float[] layer, int tile) {
+        float total = 0;
+        for (int i = lookaheadStart[tile]; i < lookaheadStart[tile + 1]; i++) {
+            total += layer[lookaheadTile[i]] * lookaheadWeight[i];
+        }
+        return total;
+    }
+
+    public String summary() {
+        return "Map analysis: " + chokepoints.cardinality() + " chokepoints, " + lookaheadTile.length + " lookahead entries";
+    }
+}
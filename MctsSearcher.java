@@ -0,0 +1,216 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Decoupled UCT for the simultaneous-move game. Every tree node keeps separate bandit statistics per agent slot
+ * (both teams), each agent picks its own move by UCB1 and the state the joint move leads to is the child node.
+ * Moves are searched, combat is filled in by RolloutPolicy (the bot's own shot/throw heuristics) from the chosen tile.
+ * Leaves are extended by a short heuristic rollout on the Simulator and scored with Evaluator.
+ * Nodes are entries of a TranspositionTable over Zobrist keys, so transposed positions share one node.
+ * All statistics live in preallocated arrays reset each turn, an iteration allocates nothing.
+ */
+public class MctsSearcher implements AnytimeSearch.Searcher {
+    static final int TABLE_BITS = 15;
+    static final int MAX_ARMS = Simulator.MAX_ARMS;
+    static final int MAX_TREE_DEPTH = 6;
+    static final int ROLLOUT_TURNS = 2;
+    static final double EXPLORATION = 0.6;
+    static final double PRIOR_WEIGHT = 0.3; // Bonus for the greedy move at the root, fades with visits
+    static final int MIN_ROOT_VISITS = 64; // Don't offer a plan before the root has seen this many iterations
+    static final int BATCH = 32;
+
+    // Nodes are transposition table entries keyed by the state's Zobrist key, so move orders reaching the same
+    // position share statistics. The entry's depth is the plies left below the node, so shallow nodes win replacements.
+    private final TranspositionTable table = new TranspositionTable(TABLE_BITS);
+
+    // Per node, per slot, per arm statistics, flattened as ((node * MAX_AGENTS) + slot) * MAX_ARMS + arm
+    private final int[] armVisits = new int[(1 << TABLE_BITS) * GameState.MAX_AGENTS * MAX_ARMS];
+    private final float[] armValue = new float[(1 << TABLE_BITS) * GameState.MAX_AGENTS * MAX_ARMS];
+    private final int[] nodeVisits = new int[1 << TABLE_BITS];
+    private int nodeCount;
+    private int rootNode;
+    private boolean expanded; // Set by child when it created the node
+
+    private final Simulator sim = new Simulator();
+    private SplashGrid grid; // Throw scores of the state being stepped, rebuilt once per step and sized per map
+    private final Random random = new Random(0);
+    private final int[] moves = new int[GameState.MAX_AGENTS];
+    private final int[] combats = new int[GameState.MAX_AGENTS];
+    private final int[] pathNodes = new int[MAX_TREE_DEPTH];
+    private final int[] pathArms = new int[MAX_TREE_DEPTH * GameState.MAX_AGENTS];
+    private final int[] rootPriorArm = new int[GameState.MAX_AGENTS];
+
+    private GameState root;
+    private GameState work;
+    private int myPlayer;
+    private int iterations;
+    private int maxDepth;
+
+    public String name() {
+        return "mcts";
+    }
+
+    public int depth() {
+        return maxDepth;
+    }
+
+    public String stats() {
+        return "depth " + maxDepth + ", " + iterations + " iterations, " + nodeCount + " nodes, " + table.stats();
+    }
+
+    // The tables are cleared every turn anyway, only the rollouts' seed starts over
+    public void newGame() {
+        random.setSeed(0);
+    }
+
+    public void reset(State state, List<State.Action> greedy, int turnCounter) {
+        root = new GameState(state.game);
+        work = new GameState(root);
+        myPlayer = root.ctx.playerId;
+        if (grid == null || grid.ctx != root.ctx) grid = new SplashGrid(root.ctx);
+        iterations = 0;
+        maxDepth = 0;
+        root.rehash();
+        table.newSearch();
+        nodeCount = 0;
+        rootNode = table.store(root.hash, 0.5f, MAX_TREE_DEPTH); // Never refused, the table is empty for this search
+        clearNode(rootNode);
+
+        Arrays.fill(rootPriorArm, -1);
+        for (State.Action a : greedy) {
+            int slot = root.slotOf(a.agentId);
+            rootPriorArm[slot] = Simulator.armOf(root.ctx, root.tile[slot], a.moveTarget.id);
+        }
+    }
+
+    public boolean deepen(AnytimeSearch search, TimeBudget budget) {
+        for (int i = 0; i < BATCH && !budget.expired(); i++) {
+            iterate();
+        }
+        if (nodeVisits[rootNode] >= MIN_ROOT_VISITS) {
+            offerBest(search);
+        }
+        return true;
+    }
+
+    private void clearNode(int node) {
+        int base = node * GameState.MAX_AGENTS * MAX_ARMS;
+        Arrays.fill(armVisits, base, base + GameState.MAX_AGENTS * MAX_ARMS, 0);
+        Arrays.fill(armValue, base, base + GameState.MAX_AGENTS * MAX_ARMS, 0f);
+        nodeVisits[node] = 0;
+        nodeCount++;
+    }
+
+    // Node for the state reached at ply, creating it if the table has room, or -1 when it doesn't
+    private int child(GameState s, int ply) {
+        int node = table.probe(s.hash);
+        expanded = node < 0;
+        if (node >= 0) return node;
+        node = table.store(s.hash, 0.5f, MAX_TREE_DEPTH - ply);
+        if (node >= 0) clearNode(node);
+        return node;
+    }
+
+    private int selectArm(int node, int slot, int arms) {
+        int base = (node * GameState.MAX_AGENTS + slot) * MAX_ARMS;
+        double logParent = Math.log(nodeVisits[node] + 1);
+        int prior = node == rootNode ? rootPriorArm[slot] : -1;
+
+        int best = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int arm = 0; arm < arms; arm++) {
+            int visits = armVisits[base + arm];
+            double score;
+            if (visits == 0) {
+                score = 1e9 + (arm == prior ? 1 : 0) + random.nextDouble() * 0.5; // Try every arm once, prior first
+            } else {
+                score = armValue[base + arm] / visits + EXPLORATION * Math.sqrt(logParent / visits);
+                if (arm == prior) score += PRIOR_WEIGHT / (visits + 1);
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = arm;
+            }
+        }
+        return best;
+    }
+
+    private void iterate() {
+        root.copyInto(work);
+        int node = rootNode;
+        int depth = 0;
+
+        // --- Selection and expansion ---
+        while (depth < MAX_TREE_DEPTH && Simulator.winner(work) < 0) {
+            for (int slot = 0; slot < work.count; slot++) {
+                int from = work.tile[slot];
+                int arm = work.isAlive(slot) ? selectArm(node, slot, 1 + work.ctx.byId[from].neighborIds.length) : 0;
+                pathArms[depth * GameState.MAX_AGENTS + slot] = arm;
+                moves[slot] = arm == 0 ? Simulator.NO_MOVE : Simulator.armTile(work.ctx, from, arm);
+            }
+            grid.build(work);
+            for (int slot = 0; slot < work.count; slot++) {
+                combats[slot] = work.isAlive(slot) ? RolloutPolicy.chooseCombat(work, grid, slot, Simulator.armTile(work.ctx, work.tile[slot], pathArms[depth * GameState.MAX_AGENTS + slot])) : Simulator.COMBAT_NONE;
+            }
+            pathNodes[depth] = node;
+            sim.step(work, moves, combats);
+            depth++;
+
+            int next = child(work, depth);
+            if (next < 0) break;
+            node = next;
+            if (expanded) break; // Continue from the new node with a rollout
+        }
+        maxDepth = Math.max(maxDepth, depth);
+
+        // --- Rollout ---
+        for (int turn = 0; turn < ROLLOUT_TURNS && Simulator.winner(work) < 0; turn++) {
+            grid.build(work);
+            for (int slot = 0; slot < work.count; slot++) {
+                if (!work.isAlive(slot)) {
+                    moves[slot] = Simulator.NO_MOVE;
+                    combats[slot] = Simulator.COMBAT_NONE;
+                    continue;
+                }
+                moves[slot] = RolloutPolicy.chooseMove(work, slot, random);
+                combats[slot] = RolloutPolicy.chooseCombat(work, grid, slot, moves[slot]);
+            }
+            sim.step(work, moves, combats);
+        }
+
+        // --- Backpropagation, each slot learns from its own team's point of view ---
+        double value0 = Evaluator.normalized(work, 0);
+        for (int d = 0; d < depth; d++) {
+            int n = pathNodes[d];
+            nodeVisits[n]++;
+            table.update(n, table.value(n) + (float) ((value0 - table.value(n)) / nodeVisits[n]));
+            for (int slot = 0; slot < work.count; slot++) {
+                int index = (n * GameState.MAX_AGENTS + slot) * MAX_ARMS + pathArms[d * GameState.MAX_AGENTS + slot];
+                armVisits[index]++;
+                armValue[index] += (float) (root.player[slot] == 0 ? value0 : 1 - value0);
+            }
+        }
+        iterations++;
+    }
+
+    // Most visited root arm for each of my agents
+    private void offerBest(AnytimeSearch search) {
+        List<State.Action> plan = new ArrayList<>();
+        double value = 0;
+        int counted = 0;
+        for (int slot = 0; slot < root.count; slot++) {
+            if (!root.isAlive(slot) || root.player[slot] != myPlayer) continue;
+            int base = (rootNode * GameState.MAX_AGENTS + slot) * MAX_ARMS;
+            int arms = 1 + root.ctx.byId[root.tile[slot]].neighborIds.length;
+            int best = 0;
+            for (int arm = 1; arm < arms; arm++) {
+                if (armVisits[base + arm] > armVisits[base + best]) best = arm;
+            }
+            plan.add(new State.Action(root.agentId[slot], root.ctx.byId[Simulator.armTile(root.ctx, root.tile[slot], best)]));
+            value += armValue[base + best] / Math.max(1, armVisits[base + best]);
+            counted++;
+        }
+        search.offer(plan, counted == 0 ? 0 : value / counted, name());
+    }
+}
@@ -0,0 +1,148 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Local tool, not part of the submission. Holds the team planners' branch and bound (JointMoveOptimizer for moves,
+ * CombatAllocator for combat) against exhaustive enumeration of the same scores, and times them. Positions come from
+ * GameSetup maps and teams, with every agent on a random open tile around one spot so both teams are within reach of
+ * each other, and random wetness, cooldowns and bombs.
+ * check fails on the first position where the search finished but missed the best enumerated score.
+ * bench reports the time per call and how often the search finished, by team size, with the turn's deadline.
+ *
+ * Usage: java PlannerCheck check [positions] [seed]
+ *        java PlannerCheck bench [positions] [seed]
+ */
+public class PlannerCheck {
+    static final int SPREAD = 5; // Agents are placed within this Manhattan distance of the spot when there's room
+    static final long BENCH_DEADLINE_MS = 10; // About what a search gets of a 50 ms turn
+
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "check";
+        int positions = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        if (mode.equals("bench")) bench(positions, seed);
+        else check(positions, seed);
+    }
+
+    static void check(int positions, long seed) {
+        Random random = new Random(seed);
+        int jointChecked = 0;
+        int combatChecked = 0;
+        for (int p = 0; p < positions; p++) {
+            GameContext ctx = position(seed + p, random);
+            JointMoveOptimizer joint = joint(ctx, random);
+            joint.optimize(stay(ctx), Long.MAX_VALUE);
+            double exhaustive = joint.exhaustiveScore();
+            if (Math.abs(joint.bestScore() - exhaustive) > 1e-6) {
+                throw new IllegalStateException("Position " + p + ": " + joint.report() + ", enumeration found " + exhaustive);
+            }
+            jointChecked++;
+
+            CombatAllocator combat = combat(ctx);
+            combat.allocate(Long.MAX_VALUE);
+            int best = combat.exhaustiveValue();
+            if (combat.value() != best) {
+                throw new IllegalStateException("Position " + p + ": " + combat.report() + ", enumeration found " + best);
+            }
+            combatChecked++;
+        }
+        System.out.println("joint moves matched enumeration on " + jointChecked + " positions");
+        System.out.println("combat allocation matched enumeration on " + combatChecked + " positions");
+    }
+
+    static void bench(int positions, long seed) {
+        for (int team = GameSetup.MIN_TEAM; team <= GameSetup.MAX_TEAM; team++) {
+            Random random = new Random(seed);
+            long nanos = 0;
+            long combatNanos = 0;
+            int exhaustive = 0;
+            int exact = 0;
+            int counted = 0;
+            for (int p = 0; p < 2 * positions; p++) {
+                GameContext ctx = position(seed + p, random);
+                if (ctx.playerAgents.size() != team) continue;
+                JointMoveOptimizer joint = joint(ctx, random);
+                long start = System.nanoTime();
+                joint.optimize(stay(ctx), start + BENCH_DEADLINE_MS * 1_000_000L);
+                nanos += System.nanoTime() - start;
+                if (joint.exhaustive) exhaustive++;
+
+                CombatAllocator combat = combat(ctx);
+                start = System.nanoTime();
+                combat.allocate(start + BENCH_DEADLINE_MS * 1_000_000L);
+                combatNanos += System.nanoTime() - start;
+                if (combat.complete) exact++;
+                if (++counted == positions) break;
+            }
+            if (counted == 0) continue;
+            System.out.printf("joint moves, %d agents: %.3f ms per call, %d of %d exhaustive within %d ms%n",
+                    team, nanos / 1e6 / counted, exhaustive, counted, BENCH_DEADLINE_MS);
+            System.out.printf("combat, %d agents: %.3f ms per call, %d of %d exact within %d ms%n",
+                    team, combatNanos / 1e6 / counted, exact, counted, BENCH_DEADLINE_MS);
+        }
+    }
+
+    // The context of seed's game for player 0, with both teams placed around one random open tile
+    static GameContext position(long seed, Random random) {
+        GameSetup setup = GameSetup.random(seed);
+        GameContext ctx = setup.context(0);
+
+        List<Integer> open = new ArrayList<>();
+        for (Tile t : ctx.byId) {
+            if (t.value == 0) open.add(t.id);
+        }
+        int spot = open.get(random.nextInt(open.size()));
+        List<Integer> near = new ArrayList<>();
+        for (int id : open) {
+            if (ctx.manhattan(spot, id) <= SPREAD) near.add(id);
+        }
+        List<Integer> tiles = near.size() >= setup.agentCount ? near : open;
+        Collections.shuffle(tiles, random);
+
+        int i = 0;
+        for (Agent a : ctx.activeAgents.values()) {
+            Tile at = ctx.byId[tiles.get(i++)];
+            int cooldown = random.nextInt(3) == 0 ? random.nextInt(a.shootCooldown + 1) : 0;
+            a.update(at.x, at.y, cooldown, random.nextInt(a.splashBombs + 1), random.nextInt(95), true);
+        }
+        return ctx;
+    }
+
+    // A joint optimizer over my team set up the way State.getBestActionsForTurn sets it up
+    static JointMoveOptimizer joint(GameContext ctx, Random random) {
+        List<Agent> all = new ArrayList<>(ctx.playerAgents.values());
+        all.addAll(ctx.enemyAgents.values());
+        List<Agent> mine = new ArrayList<>(ctx.playerAgents.values());
+        State state = new State(ctx, all);
+
+        // A guessed throw at one of my agents for every enemy with bombs, so the splash terms aren't all zero
+        for (Agent e : ctx.enemyAgents.values()) {
+            if (e.splash > 0) state.predictedBomb[state.game.slotOf(e.agentId)] = mine.get(random.nextInt(mine.size())).tileId();
+        }
+        state.threats.build(state.game, ctx.enemyId, state.predictedBomb, State.W_DAMAGE_PROBABLE);
+        SplashGrid grid = new SplashGrid(ctx);
+        grid.build(all);
+        for (Agent a : mine) state.actions[state.game.slotOf(a.agentId)] = new ActionGenerator(a, all, grid);
+
+        double advantage = mine.size() / (double) ctx.enemyAgents.size();
+        Agent teamTarget = ctx.enemyAgents.values().iterator().next();
+        return new JointMoveOptimizer(state, mine, advantage, teamTarget, null, 1 + random.nextInt(Simulator.MAX_TURNS));
+    }
+
+    // A combat allocation for my team from the tiles they stand on, the way PlayerBot builds it after the moves
+    static CombatAllocator combat(GameContext ctx) {
+        List<Agent> all = new ArrayList<>(ctx.playerAgents.values());
+        all.addAll(ctx.enemyAgents.values());
+        SplashGrid grid = new SplashGrid(ctx);
+        grid.build(all);
+        return new CombatAllocator(new ArrayList<>(ctx.playerAgents.values()), all, grid);
+    }
+
+    // Every agent of mine staying put, the greedy plan the joint optimizer starts from here
+    static List<State.Action> stay(GameContext ctx) {
+        List<State.Action> plan = new ArrayList<>();
+        for (Agent a : ctx.playerAgents.values()) plan.add(new State.Action(a.agentId, a.getPositionAsTile()));
+        return plan;
+    }
+}
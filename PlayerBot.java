@@ -0,0 +1,124 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * The bot itself: the greedy State pass, the registered searchers until the deadline and the team combat allocation.
+ * Each instance plays one side of one game through its GameContext.
+ */
+public class PlayerBot implements Bot {
+    final String planner;
+    final Map<String, Double> weights = new HashMap<>(); // Overrides from the spec, applied to every game's context
+    final List<AnytimeSearch.Searcher> searchers = new ArrayList<>(); // Run in order after the greedy pass, until the deadline
+    boolean steppedClock; // Budget every game on TimeBudget's stepped clock, so local replays are exact
+    GameContext ctx;
+    int turnCounter;
+
+    /**
+     * The searchers' node and population arrays are allocated here once, a pooled process reuses them every game.
+     *
+     * @param spec planner name, optionally followed by weight overrides, for example "greedy,chokepoint=0,directionalCover=0"
+     */
+    public PlayerBot(String spec) {
+        String[] parts = spec.split(",");
+        this.planner = parts[0];
+        for (int i = 1; i < parts.length; i++) {
+            String[] pair = parts[i].split("=");
+            if (pair.length != 2 || !(pair[0].equals("chokepoint") || pair[0].equals("directionalCover"))) {
+                throw new IllegalArgumentException("Unknown weight override " + parts[i]);
+            }
+            weights.put(pair[0], Double.parseDouble(pair[1]));
+        }
+        if (planner.equals("mcts")) searchers.add(new MctsSearcher());
+        else if (planner.equals("rhea")) searchers.add(new RheaSearcher());
+    }
+
+    @Override
+    public void init(GameContext ctx) {
+        this.ctx = ctx;
+        this.turnCounter = 0;
+        if (steppedClock) ctx.budget.useClock(TimeBudget.steppedClock(TimeBudget.STEP_NANOS));
+        if (weights.containsKey("chokepoint")) ctx.chokepointWeight = weights.get("chokepoint");
+        if (weights.containsKey("directionalCover")) ctx.directionalCoverWeight = weights.get("directionalCover");
+        for (AnytimeSearch.Searcher s : searchers) s.newGame();
+        System.err.println(ctx.analysis.summary());
+    }
+
+    // The caller starts ctx.budget as soon as the turn's first token is read
+    @Override
+    public List<String> decide(TurnSnapshot turn) {
+        turnCounter++;
+        // Set dead
+        ctx.setDead();
+
+        for (int i = 0; i < turn.agentCount; i++) {
+            ctx.activeAgents.get(turn.agentId[i]).update(turn.x[i], turn.y[i], turn.cooldown[i], turn.splashBombs[i], turn.wetness[i], true); // Will also set alive
+        }
+
+        // Initialize enemyTargets
+        ArrayList<Agent> allAgents = new ArrayList<Agent>(ctx.playerAgents.values());
+        allAgents.addAll(ctx.enemyAgents.values());
+
+        int myAgentCount = turn.myAgentCount;
+        int playerAgentOffset = ctx.playerId == 0 ? 0 : turn.agentCount - myAgentCount;
+
+        System.err.println(Arrays.toString(turn.agentId) + " " + playerAgentOffset);
+        System.err.println("My Agents: " + myAgentCount + " " + ctx.playerAgents.values());
+        System.err.println(ctx.territory.calculateTerritory(allAgents));
+
+        State currentState = new State(ctx, allAgents);
+        currentState.game.turn = turnCounter - 1; // The simulator counts turns from 0, like the referee
+        currentState.game.rehash();
+        List<State.Action> greedyMoves = currentState.getBestActionsForTurn(turnCounter);
+        AnytimeSearch search = new AnytimeSearch(ctx.budget, greedyMoves);
+        List<State.Action> chosenMoves = search.run(currentState, searchers, turnCounter);
+        System.err.println("Chosen Moves: " + chosenMoves); // Figure out a way in the end game to ensure I control the center part of the territory
+
+        for (State.Action a: chosenMoves) {
+            ctx.playerAgents.get(a.agentId).setGoal(a.moveTarget);
+            // Immediately update my position
+            ctx.playerAgents.get(a.agentId).x = a.moveTarget.x;
+            ctx.playerAgents.get(a.agentId).y = a.moveTarget.y;
+        }
+
+        // Combat for the whole team at once, from the tiles the agents are moving to
+        List<Agent> combatOrder = new ArrayList<>();
+        for (int i = 0; i < myAgentCount; i++) {
+            combatOrder.add(ctx.playerAgents.get(turn.agentId[i + playerAgentOffset]));
+        }
+        SplashGrid splashGrid = new SplashGrid(ctx);
+        splashGrid.build(allAgents);
+        CombatAllocator combat = new CombatAllocator(combatOrder, allAgents, splashGrid);
+        combat.allocate(Math.max(ctx.budget.combatDeadlineNanos(), ctx.budget.now() + 1_000_000L)); // Always give it at least a millisecond
+        System.err.println(combat.report());
+
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < myAgentCount; i++) {
+            Agent currentAgent = combatOrder.get(i);
+            System.err.println(currentAgent);
+
+            String action = currentAgent.agentId + "; ";
+            String combatAction = combat.command(i);
+
+            String message = "";
+            if (currentAgent.goal != null) {
+                message += "MESSAGE Moving to: " + currentAgent.goal;
+            }
+
+            // One line per agent: <agentId>;<action1;action2;...> actions are "MOVE x y | SHOOT id | THROW x y | HUNKER_DOWN | MESSAGE text"
+            if (currentAgent.goal != null) {
+                action += "MOVE " + currentAgent.goal.x + " " + currentAgent.goal.y + ";";
+            } else {
+                action += "MOVE " + currentAgent.x + " " + currentAgent.y + ";";
+            }
+
+            action += combatAction;
+
+            action += message;
+            lines.add(action);
+        }
+
+        System.err.println(search.report(searchers, turnCounter));
+        return lines;
+    }
+}
@@ -0,0 +1,110 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+import java.lang.management.*;
+
+/**
+ * Local tool, not part of the submission. Times each stage of GameContext.precomputeMap and counts the bytes it
+ * allocates, on generated maps of increasing size and cover density, to see how much of the first turn's 1000 ms the
+ * precomputation takes on the worst 20x10 maps.
+ * The first run in a fresh JVM is reported on its own: that's what the first turn pays, before the JIT has compiled
+ * anything, and warm averages alone would hide it. Warm numbers are averages over reps runs after as many warmup runs,
+ * Allocation is ThreadMXBean.getThreadAllocatedBytes for this thread, read around each stage and reported in bytes.
+ *
+ * Usage: java PrecomputeBenchmark [reps] [seed]
+ */
+public class PrecomputeBenchmark {
+    static final String[] STAGES = {"tile data", "path distances", "cover table", "map analysis", "damage tables", "territory"};
+    static final int[][] SIZES = {{12, 6}, {16, 8}, {20, 10}};
+    static final double[] DENSITIES = {0.0, 0.1, 0.2, 0.3};
+
+    static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int reps = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        if (!THREADS.isThreadAllocatedMemorySupported()) {
+            System.out.println("This JVM doesn't count allocated bytes per thread");
+            return;
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        // Worst case first, while nothing is compiled yet
+        long[] nanos = new long[STAGES.length];
+        long[] bytes = new long[STAGES.length];
+        run(GameSetup.random(seed, 20, 10, 0.2), nanos, bytes);
+        System.out.println("First run in this JVM, 20x10 at 20% cover:");
+        System.out.printf("  %-15s %9s %16s%n", "stage", "ms", "bytes allocated");
+        long totalNanos = 0;
+        long totalBytes = 0;
+        for (int s = 0; s < STAGES.length; s++) {
+            System.out.printf("  %-15s %9.2f %16d%n", STAGES[s], nanos[s] / 1e6, bytes[s]);
+            totalNanos += nanos[s];
+            totalBytes += bytes[s];
+        }
+        System.out.printf("  %-15s %9.2f %16d%n", "total", totalNanos / 1e6, totalBytes);
+
+        List<String> timeRows = new ArrayList<>();
+        List<String> byteRows = new ArrayList<>();
+        for (int[] size : SIZES) {
+            for (double density : DENSITIES) {
+                GameSetup setup = GameSetup.random(seed, size[0], size[1], density);
+                long[] sumNanos = new long[STAGES.length];
+                long[] sumBytes = new long[STAGES.length];
+                for (int i = 0; i < reps; i++) run(setup, nanos, bytes); // Warmup
+                for (int i = 0; i < reps; i++) {
+                    run(setup, nanos, bytes);
+                    for (int s = 0; s < STAGES.length; s++) {
+                        sumNanos[s] += nanos[s];
+                        sumBytes[s] += bytes[s];
+                    }
+                }
+
+                String map = String.format("  %-12s", size[0] + "x" + size[1] + " " + Math.round(density * 100) + "%");
+                StringBuilder timeRow = new StringBuilder(map);
+                StringBuilder byteRow = new StringBuilder(map);
+                long sumAllNanos = 0;
+                long sumAllBytes = 0;
+                for (int s = 0; s < STAGES.length; s++) {
+                    timeRow.append(String.format(" %15.1f", sumNanos[s] / 1e3 / reps));
+                    byteRow.append(String.format(" %15d", sumBytes[s] / reps));
+                    sumAllNanos += sumNanos[s];
+                    sumAllBytes += sumBytes[s];
+                }
+                timeRows.add(timeRow.append(String.format(" %15.1f", sumAllNanos / 1e3 / reps)).toString());
+                byteRows.add(byteRow.append(String.format(" %15d", sumAllBytes / reps)).toString());
+            }
+        }
+
+        StringBuilder header = new StringBuilder(String.format("  %-12s", "map"));
+        for (String stage : STAGES) header.append(String.format(" %15s", stage));
+        header.append(String.format(" %15s", "total"));
+        System.out.printf("%nWarm, mean us per run over %d runs:%n%s%n", reps, header);
+        for (String row : timeRows) System.out.println(row);
+        System.out.printf("%nWarm, mean bytes allocated per run over %d runs:%n%s%n", reps, header);
+        for (String row : byteRows) System.out.println(row);
+    }
+
+    // One precomputation on a fresh context, stage by stage in precomputeMap's order
+    static void run(GameSetup setup, long[] nanos, long[] bytes) {
+        GameContext ctx = new GameContext(0);
+        setup.addAgents(ctx);
+        Tile[][] grid = setup.grid();
+        ctx.map = grid;
+        long thread = Thread.currentThread().getId();
+        for (int s = 0; s < STAGES.length; s++) {
+            long allocated = THREADS.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            switch (s) {
+                case 0: ctx.precomputeTileData(grid); break;
+                case 1: ctx.calculateAllPairsPathDistances(); break;
+                case 2: Tile.buildCoverTable(ctx); break;
+                case 3: ctx.analysis = new MapAnalysis(ctx); break;
+                case 4: ctx.buildDamageProfiles(); break;
+                default: ctx.territory = new TerritoryCalculator(ctx);
+            }
+            nanos[s] = System.nanoTime() - start;
+            bytes[s] = THREADS.getThreadAllocatedBytes(thread) - allocated;
+        }
+    }
+}
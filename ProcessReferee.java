@@ -0,0 +1,164 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+import java.util.concurrent.*;
+
+/**
+ * Local tool, not part of the submission. Plays one game between two bot programs, each its own process speaking the
+ * statement's protocol on stdin and stdout, so the submission runs exactly as it does in the arena.
+ * Like the arena, a bot loses when its lines for a turn aren't all out within 1000 ms on the first turn or 50 ms after,
+ * counted from when its input was written, when it exits, or when a command is invalid (Referee.parse).
+ * A reader task per process stamps each output line as it arrives, so the limits measure the bot and not the referee.
+ * Readers run on virtual threads where the JDK has them, many matches then cost no platform thread each.
+ */
+public class ProcessReferee {
+    static final ExecutorService IO = ioExecutor();
+
+    // Virtual threads on Java 21 and later, daemon platform threads before
+    static ExecutorService ioExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "referee-io");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    // One output line and when it arrived, text is null once the process closed its output
+    static class Line {
+        final String text;
+        final long nanos;
+
+        Line(String text, long nanos) {
+            this.text = text;
+            this.nanos = nanos;
+        }
+    }
+
+    static class BotProcess implements Closeable {
+        final String command;
+        final Process process;
+        final Writer stdin;
+        final BlockingQueue<Line> lines = new LinkedBlockingQueue<>();
+        int games; // Games whose init text reached the process, every one after the first begins with Player.NEW_GAME
+        boolean broken; // Timed out or exited, its output can't be trusted to line up with the next game's input
+
+        BotProcess(String command) throws IOException {
+            this.command = command;
+            process = new ProcessBuilder(command.trim().split("\\s+")).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+            stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+            BufferedReader stdout = new BufferedReader(new InputStreamReader(process.getInputStream()));
+            IO.execute(() -> {
+                try {
+                    for (String line; (line = stdout.readLine()) != null; ) lines.add(new Line(line, System.nanoTime()));
+                } catch (IOException e) {
+                    // Closed under us, same as the process ending
+                }
+                lines.add(new Line(null, System.nanoTime()));
+            });
+        }
+
+        // Returns when the input was handed to the process
+        long send(String input) throws IOException {
+            stdin.write(input);
+            stdin.flush();
+            return System.nanoTime();
+        }
+
+        // The next line if it arrives before the deadline, null otherwise
+        Line next(long deadlineNanos) throws InterruptedException {
+            return lines.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void close() {
+            process.destroyForcibly();
+        }
+    }
+
+    private final GameSetup setup;
+
+    public ProcessReferee(GameSetup setup) {
+        this.setup = setup;
+    }
+
+    // A game between two freshly started processes, closed afterwards
+    public Referee.Result play(String command0, String command1) throws InterruptedException {
+        String[] commands = {command0, command1};
+        BotProcess[] bots = new BotProcess[2];
+        try {
+            for (int p = 0; p < 2; p++) {
+                try {
+                    bots[p] = new BotProcess(commands[p]);
+                } catch (IOException e) {
+                    Referee.Result result = new Referee.Result(setup.seed);
+                    return Referee.forfeit(result, Referee.initialState(setup), p, "didn't start: " + e.getMessage());
+                }
+            }
+            return play(bots[0], bots[1]);
+        } finally {
+            for (BotProcess bot : bots) {
+                if (bot != null) bot.close();
+            }
+        }
+    }
+
+    // A game between two running processes, which stay open. A process that already played gets Player.NEW_GAME first.
+    public Referee.Result play(BotProcess bot0, BotProcess bot1) throws InterruptedException {
+        Referee.Result result = new Referee.Result(setup.seed);
+        GameState state = Referee.initialState(setup);
+        Simulator sim = new Simulator();
+        BotProcess[] bots = {bot0, bot1};
+        int[] moves = new int[state.count];
+        int[] combats = new int[state.count];
+        String[] init = new String[2];
+        for (int p = 0; p < 2; p++) {
+            init[p] = (bots[p].games > 0 ? Player.NEW_GAME + "\n" : "") + setup.initText(p);
+        }
+
+        while (Simulator.winner(state) < 0) {
+            Arrays.fill(moves, Simulator.NO_MOVE);
+            Arrays.fill(combats, Simulator.COMBAT_NONE);
+            String when = "turn " + (state.turn + 1) + ": ";
+
+            // One bot after the other on the same state, so neither one's clock runs while the other computes, as
+            // on the arena's separate machines
+            for (int p = 0; p < 2; p++) {
+                TurnSnapshot turn = Referee.snapshot(state, p);
+                String input = (state.turn == 0 ? init[p] : "") + turn.toInput();
+                long sent;
+                try {
+                    sent = bots[p].send(input);
+                    if (state.turn == 0) bots[p].games++; // Counted once sent, a bot the game ended before is still fresh
+                } catch (IOException e) {
+                    bots[p].broken = true;
+                    return Referee.forfeit(result, state, p, when + "exited");
+                }
+
+                long limitNanos = (state.turn == 0 ? TimeBudget.FIRST_TURN_MS : TimeBudget.TURN_MS) * 1_000_000L;
+                List<String> lines = new ArrayList<>();
+                for (int k = 0; k < turn.myAgentCount; k++) {
+                    Line line = bots[p].next(sent + limitNanos);
+                    if (line == null || line.nanos - sent > limitNanos) {
+                        bots[p].broken = true;
+                        return Referee.forfeit(result, state, p, when + "timeout after " + lines.size() + " of " + turn.myAgentCount + " lines");
+                    }
+                    if (line.text == null) {
+                        bots[p].broken = true;
+                        return Referee.forfeit(result, state, p, when + "exited");
+                    }
+                    lines.add(line.text);
+                    result.turnNanos[p][state.turn] = line.nanos - sent;
+                }
+
+                String error = Referee.parse(state, p, lines, moves, combats);
+                if (error != null) return Referee.forfeit(result, state, p, when + error);
+            }
+            sim.step(state, moves, combats);
+        }
+        return Referee.finish(result, state);
+    }
+}
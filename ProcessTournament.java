@@ -0,0 +1,100 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+import java.util.concurrent.*;
+
+/**
+ * Local tool, not part of the submission. Tournament with every bot as its own process through ProcessReferee, for
+ * measuring the submission as the arena runs it. Commands are whole command lines, for example
+ * "java -cp out Player" for this tree or "java -cp final Player" for FINAL_SUBMISSION.java compiled on its own.
+ * Seeds, sides and the report are the same as Tournament's. Each match runs on its own virtual thread where the JDK
+ * has them, at most parallel matches at once since every match holds two JVMs.
+ * Modes: cold starts two processes per game like the arena, pooled reuses warm ones from a BotPool (the bots must
+ * understand Player.NEW_GAME, FINAL_SUBMISSION.java doesn't), compare plays the same games both ways and reports
+ * games/hour and first turn latency side by side.
+ *
+ * Usage: java ProcessTournament [games] [commandA] [commandB] [firstSeed] [parallel] [cold|pooled|compare]
+ */
+public class ProcessTournament {
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        String commandA = args.length > 1 ? args[1] : "java -Dplanner=mcts Player";
+        String commandB = args.length > 2 ? args[2] : "java -Dplanner=greedy Player";
+        long firstSeed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        int parallel = args.length > 4 ? Integer.parseInt(args[4]) : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        String mode = args.length > 5 ? args[5] : "cold";
+
+        if (mode.equals("compare")) {
+            String[] modes = {"cold", "pooled"};
+            String[] lines = new String[modes.length];
+            for (int m = 0; m < modes.length; m++) {
+                long start = System.nanoTime();
+                List<Referee.Result> results = run(modes[m], games, commandA, commandB, firstSeed, parallel);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                List<Long> firstTurns = new ArrayList<>();
+                int forfeits = 0;
+                for (Referee.Result r : results) {
+                    for (int p = 0; p < 2; p++) {
+                        if (r.turnNanos[p][0] > 0) firstTurns.add(r.turnNanos[p][0]);
+                    }
+                    if (r.error != null) forfeits++;
+                }
+                lines[m] = String.format("%-6s: %.0f games/hour, first turn %s, %d forfeits",
+                        modes[m], games / seconds * 3600, Tournament.percentiles(firstTurns), forfeits);
+            }
+            System.out.printf("%d games of \"%s\" vs \"%s\" from seed %d, %d at a time%n", games, commandA, commandB, firstSeed, parallel);
+            for (String line : lines) System.out.println(line);
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<Referee.Result> results = run(mode, games, commandA, commandB, firstSeed, parallel);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games of \"%s\" (A) vs \"%s\" (B) from seed %d, %d at a time with %s processes in %.1f s, %.2f games/s%n",
+                games, commandA, commandB, firstSeed, parallel, mode, seconds, games / seconds);
+        Tournament.report(results, "\"" + commandA + "\"", "\"" + commandB + "\"");
+    }
+
+    // Results in game order, A played player i % 2 in game i
+    static List<Referee.Result> run(String mode, int games, String commandA, String commandB, long firstSeed, int parallel) throws Exception {
+        boolean pooled = mode.equals("pooled");
+        BotPool pool = new BotPool();
+        if (pooled) {
+            pool.prestart(commandA, parallel);
+            pool.prestart(commandB, parallel);
+        }
+
+        Semaphore slots = new Semaphore(parallel);
+        List<Future<Referee.Result>> futures = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            long seed = firstSeed + i / 2;
+            String command0 = i % 2 == 0 ? commandA : commandB;
+            String command1 = i % 2 == 0 ? commandB : commandA;
+            futures.add(ProcessReferee.IO.submit(() -> {
+                slots.acquire();
+                try {
+                    ProcessReferee referee = new ProcessReferee(GameSetup.random(seed));
+                    if (!pooled) return referee.play(command0, command1);
+                    ProcessReferee.BotProcess bot0 = pool.acquire(command0);
+                    ProcessReferee.BotProcess bot1 = pool.acquire(command1);
+                    try {
+                        return referee.play(bot0, bot1);
+                    } finally {
+                        pool.release(bot0);
+                        pool.release(bot1);
+                    }
+                } finally {
+                    slots.release();
+                }
+            }));
+        }
+        List<Referee.Result> results = new ArrayList<>();
+        try {
+            for (Future<Referee.Result> f : futures) results.add(f.get());
+        } finally {
+            pool.close();
+        }
+        return results;
+    }
+}
@@ -0,0 +1,204 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Local tool, not part of the submission. Plays one game between two in-process Bots with the statement's rules:
+ * each bot gets its own GameContext built from the game's GameSetup and a TurnSnapshot per turn, its output lines are
+ * checked like the arena checks them and the turn is resolved by the Simulator on the referee's own context.
+ * A bot that throws or writes an invalid command loses, as it would in the arena. Turns over the time limit are only
+ * counted, since in-process times depend on how loaded the machine is.
+ */
+public class Referee {
+    public static class Result {
+        final long seed;
+        int winner = -1; // Player id, 2 for a draw
+        int turns;
+        final int[] score = new int[2];
+        String error; // Why the loser forfeited, null if the game ran to a victory condition
+        final long[][] turnNanos = new long[2][Simulator.MAX_TURNS]; // Per player, the first turn includes building the context
+        final int[] lateTurns = new int[2];
+
+        Result(long seed) {
+            this.seed = seed;
+        }
+    }
+
+    private final GameSetup setup;
+    private final Bot[] bots;
+
+    public Referee(GameSetup setup, Bot bot0, Bot bot1) {
+        this.setup = setup;
+        this.bots = new Bot[] {bot0, bot1};
+    }
+
+    public Result play() {
+        Result result = new Result(setup.seed);
+        GameState state = initialState(setup);
+        Simulator sim = new Simulator();
+        GameContext[] views = new GameContext[2];
+        int[] moves = new int[state.count];
+        int[] combats = new int[state.count];
+
+        while (Simulator.winner(state) < 0) {
+            Arrays.fill(moves, Simulator.NO_MOVE);
+            Arrays.fill(combats, Simulator.COMBAT_NONE);
+            for (int p = 0; p < 2; p++) {
+                long start = System.nanoTime();
+                List<String> lines;
+                try {
+                    if (state.turn == 0) {
+                        views[p] = setup.context(p);
+                        bots[p].init(views[p]);
+                    } else {
+                        views[p].budget.start(false);
+                    }
+                    lines = bots[p].decide(snapshot(state, p));
+                } catch (RuntimeException e) {
+                    return forfeit(result, state, p, "turn " + (state.turn + 1) + ": " + e);
+                }
+                long elapsed = System.nanoTime() - start;
+                result.turnNanos[p][state.turn] = elapsed;
+                long limitMs = state.turn == 0 ? TimeBudget.FIRST_TURN_MS : TimeBudget.TURN_MS;
+                if (elapsed > limitMs * 1_000_000L) result.lateTurns[p]++;
+
+                String error = parse(state, p, lines, moves, combats);
+                if (error != null) return forfeit(result, state, p, "turn " + (state.turn + 1) + ": " + error);
+            }
+            sim.step(state, moves, combats);
+        }
+
+        return finish(result, state);
+    }
+
+    // The referee's own view of the game, on a context of its own
+    static GameState initialState(GameSetup setup) {
+        GameContext rules = setup.context(0);
+        for (int i = 0; i < setup.agentCount; i++) {
+            rules.activeAgents.get(setup.agentId[i]).update(setup.startX[i], setup.startY[i], 0, setup.splashBombs[i], 0, true);
+        }
+        return new GameState(rules, rules.activeAgents.values());
+    }
+
+    // Fills the result once a victory condition is met
+    static Result finish(Result result, GameState state) {
+        result.winner = Simulator.winner(state);
+        result.turns = state.turn;
+        result.score[0] = state.score[0];
+        result.score[1] = state.score[1];
+        return result;
+    }
+
+    static Result forfeit(Result result, GameState state, int loser, String error) {
+        result.winner = 1 - loser;
+        result.turns = state.turn;
+        result.score[0] = state.score[0];
+        result.score[1] = state.score[1];
+        result.error = "player " + loser + " " + error;
+        return result;
+    }
+
+    // The turn input for one player: every live agent by ascending id
+    static TurnSnapshot snapshot(GameState state, int p) {
+        int alive = 0;
+        int mine = 0;
+        for (int i = 0; i < state.count; i++) {
+            if (!state.isAlive(i)) continue;
+            alive++;
+            if (state.player[i] == p) mine++;
+        }
+        TurnSnapshot turn = new TurnSnapshot(alive);
+        int k = 0;
+        for (int i = 0; i < state.count; i++) {
+            if (!state.isAlive(i)) continue;
+            Tile t = state.ctx.byId[state.tile[i]];
+            turn.set(k++, state.agentId[i], t.x, t.y, state.cooldown[i], state.splash[i], state.wetness[i]);
+        }
+        turn.myAgentCount = mine;
+        return turn;
+    }
+
+    /**
+     * Reads one player's output into moves and combats by slot. Returns why the output is invalid, or null.
+     * A line may omit its agent id, it then goes to the player's live agents in ascending id order.
+     */
+    static String parse(GameState state, int p, List<String> lines, int[] moves, int[] combats) {
+        List<Integer> own = new ArrayList<>();
+        for (int i = 0; i < state.count; i++) {
+            if (state.isAlive(i) && state.player[i] == p) own.add(i);
+        }
+        if (lines.size() != own.size()) return "expected " + own.size() + " lines, got " + lines.size();
+
+        GameContext ctx = state.ctx;
+        boolean[] seen = new boolean[state.count];
+        for (int l = 0; l < lines.size(); l++) {
+            String line = lines.get(l);
+            String[] parts = line.split(";");
+            int first = 0;
+            int slot = own.get(l);
+            String head = parts.length > 0 ? parts[0].trim() : "";
+            if (!head.isEmpty() && Character.isDigit(head.charAt(0))) {
+                int id;
+                try {
+                    id = Integer.parseInt(head);
+                } catch (NumberFormatException e) {
+                    return "bad agent id in \"" + line + "\"";
+                }
+                slot = state.slotOf(id);
+                if (slot < 0 || !state.isAlive(slot) || state.player[slot] != p) return "agent " + id + " isn't one of mine in \"" + line + "\"";
+                first = 1;
+            }
+            if (seen[slot]) return "agent " + state.agentId[slot] + " got two lines";
+            seen[slot] = true;
+
+            boolean moved = false;
+            boolean fought = false;
+            for (int k = first; k < parts.length; k++) {
+                String action = parts[k].trim();
+                if (action.isEmpty() || action.startsWith("MESSAGE")) continue;
+                String[] words = action.split("\\s+");
+                try {
+                    switch (words[0]) {
+                        case "MOVE": {
+                            if (moved || words.length != 3) return "bad MOVE in \"" + line + "\"";
+                            int x = Integer.parseInt(words[1]);
+                            int y = Integer.parseInt(words[2]);
+                            if (x < 0 || x >= ctx.width || y < 0 || y >= ctx.height) return "MOVE off the map in \"" + line + "\"";
+                            moves[slot] = y * ctx.width + x;
+                            moved = true;
+                            break;
+                        }
+                        case "SHOOT": {
+                            if (fought || words.length != 2) return "bad SHOOT in \"" + line + "\"";
+                            int target = state.slotOf(Integer.parseInt(words[1]));
+                            if (target < 0 || !state.isAlive(target)) return "SHOOT at no live agent in \"" + line + "\"";
+                            combats[slot] = Simulator.shoot(target);
+                            fought = true;
+                            break;
+                        }
+                        case "THROW": {
+                            if (fought || words.length != 3) return "bad THROW in \"" + line + "\"";
+                            int x = Integer.parseInt(words[1]);
+                            int y = Integer.parseInt(words[2]);
+                            if (x < 0 || x >= ctx.width || y < 0 || y >= ctx.height) return "THROW off the map in \"" + line + "\"";
+                            combats[slot] = Simulator.throwAt(y * ctx.width + x);
+                            fought = true;
+                            break;
+                        }
+                        case "HUNKER_DOWN": {
+                            if (fought || words.length != 1) return "bad HUNKER_DOWN in \"" + line + "\"";
+                            combats[slot] = Simulator.HUNKER;
+                            fought = true;
+                            break;
+                        }
+                        default:
+                            return "unknown action in \"" + line + "\"";
+                    }
+                } catch (NumberFormatException e) {
+                    return "bad number in \"" + line + "\"";
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,288 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Rolling horizon evolution: evolves fixed-length plans of move and combat genes for my agents, scoring each by
+ * simulating HORIZON turns against the predicted enemy policy (RolloutPolicy, the bot's own heuristics) and evaluating
+ * with Evaluator. Genomes, offspring and fitness live in preallocated buffers, a generation allocates nothing.
+ * The best plan survives into the next turn shifted by one turn, so the population starts from last turn's work.
+ */
+public class RheaSearcher implements AnytimeSearch.Searcher {
+    static final int HORIZON = 5;
+    static final int POPULATION = 16;
+    static final int ELITES = 2;
+    static final int TOURNAMENT = 3;
+    static final double DISCOUNT = 0.85; // Later turns are less certain, the enemy won't follow the prediction for long
+
+    // Combat genes, resolved by RolloutPolicy against the simulated state when the plan is played
+    static final int COMBAT_AUTO = 0;
+    static final int COMBAT_SHOOT = 1;
+    static final int COMBAT_THROW = 2;
+    static final int COMBAT_HUNKER = 3;
+    static final int COMBAT_GENES = 4;
+
+    // One gene per (turn, slot), packed as arm | combat << 4, flattened as turn * MAX_AGENTS + slot
+    static final int GENOME = HORIZON * GameState.MAX_AGENTS;
+    private int[] genes = new int[POPULATION * GENOME];
+    private int[] offspring = new int[POPULATION * GENOME];
+    private final double[] fitness = new double[POPULATION];
+    private final double[] offspringFitness = new double[POPULATION];
+
+    // Best plan of the previous turn, keyed by agent id so it survives agents dying
+    private final int[] carried = new int[GENOME];
+    private final int[] carriedIds = new int[GameState.MAX_AGENTS];
+    private int carriedCount;
+
+    private final Simulator sim = new Simulator();
+    private SplashGrid grid; // Throw scores of the state being stepped, rebuilt once per step and sized per map
+    private final Random random = new Random(0);
+    private final Random enemyRandom = new Random();
+    private final int[] moves = new int[GameState.MAX_AGENTS];
+    private final int[] combats = new int[GameState.MAX_AGENTS];
+    private final int[] mine = new int[GameState.MAX_AGENTS]; // Slots of my live agents
+    private final int[] elite = new int[ELITES];
+    private int mineCount;
+    private long enemySeed;
+
+    private GameState root;
+    private GameState work;
+    private int myPlayer;
+    private int generations;
+    private int evaluations;
+    private int bestIndex;
+
+    public String name() {
+        return "rhea";
+    }
+
+    public int depth() {
+        return HORIZON;
+    }
+
+    public String stats() {
+        return "horizon " + HORIZON + ", " + generations + " generations, " + evaluations + " evaluations, best " + String.format("%.1f", fitness[bestIndex]);
+    }
+
+    // Last game's plan doesn't carry over, and the mutations start from the same seed
+    public void newGame() {
+        carriedCount = 0;
+        random.setSeed(0);
+    }
+
+    public void reset(State state, List<State.Action> greedy, int turnCounter) {
+        root = new GameState(state.game);
+        work = new GameState(root);
+        myPlayer = root.ctx.playerId;
+        if (grid == null || grid.ctx != root.ctx) grid = new SplashGrid(root.ctx);
+        generations = 0;
+        evaluations = 0;
+        enemySeed = turnCounter; // Every candidate this turn faces the same enemy rollout
+
+        mineCount = 0;
+        for (int slot = 0; slot < root.count; slot++) {
+            if (root.isAlive(slot) && root.player[slot] == myPlayer) mine[mineCount++] = slot;
+        }
+
+        // Individual 0 is last turn's best shifted one turn, individual 1 the greedy moves followed by the same tail,
+        // the rest are mutations of those two and random plans
+        int[] shifted = offspring;
+        randomize(shifted, 0);
+        for (int i = 0; i < carriedCount; i++) {
+            int slot = root.slotOf(carriedIds[i]);
+            if (slot < 0 || !root.isAlive(slot)) continue;
+            for (int t = 0; t + 1 < HORIZON; t++) {
+                shifted[t * GameState.MAX_AGENTS + slot] = carried[(t + 1) * GameState.MAX_AGENTS + i];
+            }
+        }
+        System.arraycopy(shifted, 0, genes, 0, GENOME);
+
+        System.arraycopy(shifted, 0, genes, GENOME, GENOME);
+        for (State.Action a : greedy) {
+            int slot = root.slotOf(a.agentId);
+            if (slot >= 0) genes[GENOME + slot] = Simulator.armOf(root.ctx, root.tile[slot], a.moveTarget.id) | COMBAT_AUTO << 4;
+        }
+
+        for (int p = 2; p < POPULATION; p++) {
+            if (p < POPULATION / 2) {
+                System.arraycopy(genes, (p % 2) * GENOME, genes, p * GENOME, GENOME);
+                mutate(genes, p * GENOME, 2.0 / Math.max(1, mineCount * HORIZON));
+            } else {
+                randomize(genes, p * GENOME);
+            }
+        }
+
+        for (int p = 0; p < POPULATION; p++) {
+            fitness[p] = evaluate(genes, p * GENOME);
+        }
+        bestIndex = best(fitness);
+    }
+
+    public boolean deepen(AnytimeSearch search, TimeBudget budget) {
+        if (budget.expired()) return true;
+
+        // Elites are copied unchanged, the rest are tournament children with uniform crossover and mutation
+        int[] order = eliteOrder();
+        for (int e = 0; e < ELITES; e++) {
+            System.arraycopy(genes, order[e] * GENOME, offspring, e * GENOME, GENOME);
+            offspringFitness[e] = fitness[order[e]];
+        }
+        double mutationRate = 1.0 / Math.max(1, mineCount * HORIZON);
+        for (int p = ELITES; p < POPULATION; p++) {
+            int a = tournament() * GENOME;
+            int b = tournament() * GENOME;
+            int child = p * GENOME;
+            for (int t = 0; t < HORIZON; t++) {
+                for (int i = 0; i < mineCount; i++) {
+                    int g = t * GameState.MAX_AGENTS + mine[i];
+                    offspring[child + g] = random.nextBoolean() ? genes[a + g] : genes[b + g];
+                }
+            }
+            mutate(offspring, child, mutationRate);
+            offspringFitness[p] = evaluate(offspring, child);
+            if (budget.expired()) {
+                // Unevaluated children can't be compared, keep the previous generation's individuals in their place
+                for (int q = p + 1; q < POPULATION; q++) {
+                    System.arraycopy(genes, q * GENOME, offspring, q * GENOME, GENOME);
+                    offspringFitness[q] = fitness[q];
+                }
+                break;
+            }
+        }
+
+        int[] swap = genes;
+        genes = offspring;
+        offspring = swap;
+        System.arraycopy(offspringFitness, 0, fitness, 0, POPULATION);
+        bestIndex = best(fitness);
+        generations++;
+
+        offerBest(search);
+        return true;
+    }
+
+    // Indices of the ELITES fittest individuals, best first
+    private int[] eliteOrder() {
+        for (int e = 0; e < ELITES; e++) {
+            int bestP = -1;
+            for (int p = 0; p < POPULATION; p++) {
+                boolean taken = false;
+                for (int k = 0; k < e; k++) taken |= elite[k] == p;
+                if (!taken && (bestP < 0 || fitness[p] > fitness[bestP])) bestP = p;
+            }
+            elite[e] = bestP;
+        }
+        return elite;
+    }
+
+    private int tournament() {
+        int winner = random.nextInt(POPULATION);
+        for (int k = 1; k < TOURNAMENT; k++) {
+            int challenger = random.nextInt(POPULATION);
+            if (fitness[challenger] > fitness[winner]) winner = challenger;
+        }
+        return winner;
+    }
+
+    private static int best(double[] values) {
+        int best = 0;
+        for (int p = 1; p < values.length; p++) {
+            if (values[p] > values[best]) best = p;
+        }
+        return best;
+    }
+
+    private int randomGene() {
+        return random.nextInt(Simulator.MAX_ARMS) | random.nextInt(COMBAT_GENES) << 4;
+    }
+
+    private void randomize(int[] pool, int offset) {
+        Arrays.fill(pool, offset, offset + GENOME, 0);
+        for (int t = 0; t < HORIZON; t++) {
+            for (int i = 0; i < mineCount; i++) {
+                pool[offset + t * GameState.MAX_AGENTS + mine[i]] = randomGene();
+            }
+        }
+    }
+
+    private void mutate(int[] pool, int offset, double rate) {
+        for (int t = 0; t < HORIZON; t++) {
+            for (int i = 0; i < mineCount; i++) {
+                if (random.nextDouble() >= rate) continue;
+                int g = offset + t * GameState.MAX_AGENTS + mine[i];
+                // Mutate either the move or the combat half of the gene
+                if (random.nextBoolean()) pool[g] = (pool[g] & ~0xF) | random.nextInt(Simulator.MAX_ARMS);
+                else pool[g] = (pool[g] & 0xF) | random.nextInt(COMBAT_GENES) << 4;
+            }
+        }
+    }
+
+    // Plays the plan against the predicted enemy and returns the discounted evaluation from my side
+    private double evaluate(int[] pool, int offset) {
+        root.copyInto(work);
+        enemyRandom.setSeed(enemySeed);
+        double value = 0;
+        double weight = 1;
+        double totalWeight = 0;
+
+        for (int t = 0; t < HORIZON && Simulator.winner(work) < 0; t++) {
+            grid.build(work);
+            for (int slot = 0; slot < work.count; slot++) {
+                if (!work.isAlive(slot)) {
+                    moves[slot] = Simulator.NO_MOVE;
+                    combats[slot] = Simulator.COMBAT_NONE;
+                } else if (work.player[slot] == myPlayer) {
+                    int gene = pool[offset + t * GameState.MAX_AGENTS + slot];
+                    int to = Simulator.armTile(work.ctx, work.tile[slot], gene & 0xF);
+                    moves[slot] = to == work.tile[slot] ? Simulator.NO_MOVE : to;
+                    combats[slot] = combatFor(gene >>> 4, slot, to);
+                } else {
+                    moves[slot] = RolloutPolicy.chooseMove(work, slot, enemyRandom);
+                    combats[slot] = RolloutPolicy.chooseCombat(work, grid, slot, moves[slot] == Simulator.NO_MOVE ? work.tile[slot] : moves[slot]);
+                }
+            }
+            sim.step(work, moves, combats);
+            value += weight * Evaluator.evaluate(work, myPlayer);
+            totalWeight += weight;
+            weight *= DISCOUNT;
+        }
+        evaluations++;
+        return totalWeight == 0 ? Evaluator.evaluate(work, myPlayer) : value / totalWeight;
+    }
+
+    private int combatFor(int gene, int slot, int fromTile) {
+        switch (gene) {
+            case COMBAT_SHOOT: {
+                int target = RolloutPolicy.chooseShot(work, slot, fromTile);
+                if (target >= 0) return Simulator.shoot(target);
+                break;
+            }
+            case COMBAT_THROW: {
+                int target = RolloutPolicy.chooseThrow(work, grid, slot, fromTile, 0);
+                if (target >= 0 && Agent.isOkBombingPosition(work.ctx.byId[fromTile], work.ctx.byId[target])) return Simulator.throwAt(target);
+                break;
+            }
+            case COMBAT_HUNKER:
+                return Simulator.HUNKER;
+        }
+        return RolloutPolicy.chooseCombat(work, grid, slot, fromTile);
+    }
+
+    // First turn of the best plan, remembered for next turn's population
+    private void offerBest(AnytimeSearch search) {
+        int offset = bestIndex * GENOME;
+        carriedCount = 0;
+        List<State.Action> plan = new ArrayList<>();
+        for (int slot = 0; slot < root.count; slot++) {
+            if (!root.isAlive(slot) || root.player[slot] != myPlayer) continue;
+            int i = carriedCount++;
+            carriedIds[i] = root.agentId[slot];
+            for (int t = 0; t < HORIZON; t++) {
+                carried[t * GameState.MAX_AGENTS + i] = genes[offset + t * GameState.MAX_AGENTS + slot];
+            }
+            int to = Simulator.armTile(root.ctx, root.tile[slot], genes[offset + slot] & 0xF);
+            plan.add(new State.Action(root.agentId[slot], root.ctx.byId[to]));
+        }
+        search.offer(plan, Evaluator.squash(fitness[bestIndex]), name());
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * The bot's own combat heuristics ported to GameState slots, so simulated agents (rollouts, predicted enemies)
+ * pick shots and throws the same way Agent.chooseShotTarget and Agent.chooseBombTarget do, without objects.
+ */
+public class RolloutPolicy {
+    static final double THROW_THRESHOLD = 13.5; // Same threshold the bot uses for my own throws
+
+    // Target slot chosen by the chooseShotTarget rules for an agent standing on fromTile, or -1
+    static int chooseShot(GameState s, int slot, int fromTile) {
+        if (s.cooldown[slot] > 0) return -1;
+
+        int bestTarget = -1;
+        int bestScore = 2;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int target = 0; target < s.count; target++) {
+            if (!s.isAlive(target) || s.player[target] == s.player[slot]) continue;
+            int distance = s.ctx.manhattan(fromTile, s.tile[target]);
+            if (distance > 2 * s.optimalRange[slot]) continue;
+
+            // Enemy can also stay still or step to any neighbor, assume the least damaging one
+            boolean hunkered = s.cooldown[target] > 0 && s.splash[target] == 0 || distance > 2 * s.optimalRange[target];
+            double minDamage = s.damageTable[slot].damage(fromTile, s.tile[target], hunkered);
+            for (int escape : s.ctx.byId[s.tile[target]].neighborIds) {
+                minDamage = Math.min(minDamage, s.damageTable[slot].damage(fromTile, escape, hunkered));
+            }
+
+            int wetness = s.wetness[target];
+            int score = (int) (minDamage + wetness);
+            if (wetness < 100 && wetness + minDamage >= 100) score += 100; // Give a big bonus for killing an agent
+            if (wetness < 50 && wetness + minDamage >= 50) score += 50; // Give a bonus for pushing an agent over 50
+
+            if (score > bestScore || (score == bestScore && bestTarget >= 0 && distance < bestDistance)) {
+                bestScore = score;
+                bestTarget = target;
+                bestDistance = distance;
+            }
+        }
+        return bestTarget;
+    }
+
+    // Tile chosen by the chooseBombTarget rules for an agent standing on fromTile, or -1. grid is built from s.
+    static int chooseThrow(GameState s, SplashGrid grid, int slot, int fromTile, double thresholdScore) {
+        if (s.splash[slot] <= 0) return -1;
+
+        // Only enemies score a throw, by a hit or a walk-in, and both are within 2 steps of the center. Without an enemy
+        // that close to some center in range no center can beat a threshold of 0 or more.
+        boolean enemyInReach = false;
+        for (int other = 0; other < s.count && !enemyInReach; other++) {
+            enemyInReach = s.isAlive(other) && s.player[other] != s.player[slot]
+                    && s.ctx.manhattan(fromTile, s.tile[other]) <= Agent.splashBombRange + 2;
+        }
+        if (!enemyInReach && thresholdScore >= 0) return -1;
+        return grid.bestTarget(fromTile, s.player[slot], thresholdScore);
+    }
+
+    // Net splash damage to the enemy of slot's owner, friendly hits counted negative
+    static int splashDamage(GameState s, int slot, int center) {
+        int damage = 0;
+        for (int other = 0; other < s.count; other++) {
+            if (s.isAlive(other) && s.ctx.inSplash(center, s.tile[other])) {
+                damage += s.player[other] == s.player[slot] ? -Agent.SPLASH_DAMAGE : Agent.SPLASH_DAMAGE;
+            }
+        }
+        return damage;
+    }
+
+    /**
+     * Combat decision made the way PlayerBot decides for my agents: throw when the bomb out-damages the shot from a
+     * legal non-suicidal position, otherwise shoot, otherwise hunker. grid is built from s, once for all slots of a step.
+     */
+    static int chooseCombat(GameState s, SplashGrid grid, int slot, int fromTile) {
+        int shotTarget = chooseShot(s, slot, fromTile);
+        double shotDamage = shotTarget < 0 ? 0 : s.damageTable[slot].damage(fromTile, s.tile[shotTarget], false);
+
+        int throwTile = chooseThrow(s, grid, slot, fromTile, THROW_THRESHOLD);
+        if (throwTile >= 0 && Agent.isOkBombingPosition(s.ctx.byId[fromTile], s.ctx.byId[throwTile])) {
+            int bombDamage = splashDamage(s, slot, throwTile);
+            if (bombDamage > 0 && bombDamage > shotDamage) return Simulator.throwAt(throwTile);
+        }
+        if (shotTarget >= 0) return Simulator.shoot(shotTarget);
+        return Simulator.HUNKER;
+    }
+
+    /**
+     * Cheap rollout move: step towards the nearest enemy while out of range, otherwise a random step (or staying put).
+     */
+    static int chooseMove(GameState s, int slot, Random random) {
+        int from = s.tile[slot];
+        int nearest = -1;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (int other = 0; other < s.count; other++) {
+            if (!s.isAlive(other) || s.player[other] == s.player[slot]) continue;
+            int d = s.ctx.manhattan(from, s.tile[other]);
+            if (d < nearestDistance) {
+                nearestDistance = d;
+                nearest = other;
+            }
+        }
+        if (nearest >= 0 && nearestDistance > s.optimalRange[slot]) return Simulator.nextStep(s.ctx, from, s.tile[nearest]);
+
+        int[] neighbors = s.ctx.byId[from].neighborIds;
+        int pick = random.nextInt(neighbors.length + 1);
+        return pick == neighbors.length ? from : neighbors[pick];
+    }
+}
@@ -0,0 +1,185 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Forward model of one game turn, following the statement's resolution order:
+ * MOVE (with collision cancellation), then HUNKER_DOWN, then SHOOT and THROW, then removal of soaked agents, then territory scoring.
+ * Damage comes from the shooters' DamageTables and GameContext.inSplash so the simulation matches the heuristics exactly.
+ * step never allocates, all scratch buffers live in the instance.
+ */
+public class Simulator {
+    // Combat actions are packed as (type << 16) | argument
+    public static final int COMBAT_NONE = 0;
+    public static final int TYPE_HUNKER = 1;
+    public static final int TYPE_SHOOT = 2; // Argument is the target slot
+    public static final int TYPE_THROW = 3; // Argument is the target tile id
+    public static final int HUNKER = TYPE_HUNKER << 16;
+
+    public static final int NO_MOVE = -1;
+    public static final int MAX_ARMS = 5; // Stay plus up to four neighbors
+    static final int WIN_SCORE_LEAD = 600;
+    static final int MAX_TURNS = 100; // The game ends after this many turns, counted from 0 like GameState.turn
+
+    private final int[] next = new int[GameState.MAX_AGENTS];
+    private final int[] damage = new int[GameState.MAX_AGENTS];
+
+    public static int shoot(int targetSlot) {
+        return (TYPE_SHOOT << 16) | targetSlot;
+    }
+
+    public static int throwAt(int tileId) {
+        return (TYPE_THROW << 16) | tileId;
+    }
+
+    public static int combatType(int combat) {
+        return combat >>> 16;
+    }
+
+    public static int combatArg(int combat) {
+        return combat & 0xFFFF;
+    }
+
+    // First step of the shortest path from one tile towards another, or the start tile if the target can't be reached
+    public static int nextStep(GameContext ctx, int from, int target) {
+        if (from == target) return from;
+        int best = from;
+        int bestDist = ctx.pathDistance(from, target);
+        if (bestDist == Tile.UNREACHABLE) return from;
+        if (bestDist == 1) return target; // Every move the planners make is one step, skip the neighbor scan
+
+        for (int neighbor : ctx.byId[from].neighborIds) {
+            int dist = ctx.pathDistance(neighbor, target);
+            if (dist < bestDist) {
+                best = neighbor;
+                bestDist = dist;
+            }
+        }
+        return best;
+    }
+
+    // Move arms used by the planners: arm 0 stays put, arm k steps to the k-th walkable neighbor
+    public static int armOf(GameContext ctx, int from, int to) {
+        int[] neighbors = ctx.byId[from].neighborIds;
+        for (int k = 0; k < neighbors.length; k++) {
+            if (neighbors[k] == to) return k + 1;
+        }
+        return 0;
+    }
+
+    public static int armTile(GameContext ctx, int from, int arm) {
+        int[] neighbors = ctx.byId[from].neighborIds;
+        return arm == 0 || arm > neighbors.length ? from : neighbors[arm - 1];
+    }
+
+    // Sets one per-agent value and keeps the hash in sync
+    private void write(GameState s, int[] values, int field, int slot, int value) {
+        if (values[slot] == value) return;
+        s.hash ^= Zobrist.key(field, slot, values[slot]) ^ Zobrist.key(field, slot, value);
+        values[slot] = value;
+    }
+
+    /**
+     * Advances the state by one turn.
+     *
+     * @param s       state to mutate
+     * @param moves   MOVE target tile id per slot, NO_MOVE to stay
+     * @param combats packed combat action per slot
+     */
+    public void step(GameState s, int[] moves, int[] combats) {
+        int n = s.count;
+
+        // --- 1. MOVE ---
+        for (int i = 0; i < n; i++) {
+            next[i] = s.tile[i];
+            if (s.isAlive(i) && moves[i] != NO_MOVE) next[i] = nextStep(s.ctx, s.tile[i], moves[i]);
+        }
+
+        // Agents ending on the same tile cancel their movement, repeat until nothing changes since cancelling can cause new collisions
+        boolean collided = true;
+        while (collided) {
+            collided = false;
+            for (int i = 0; i < n; i++) {
+                if (!s.isAlive(i)) continue;
+                for (int j = i + 1; j < n; j++) {
+                    if (!s.isAlive(j) || next[i] != next[j]) continue;
+                    if (next[i] != s.tile[i]) { next[i] = s.tile[i]; collided = true; }
+                    if (next[j] != s.tile[j]) { next[j] = s.tile[j]; collided = true; }
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) write(s, s.tile, Zobrist.FIELD_TILE, i, next[i]);
+
+        // --- 2. HUNKER_DOWN ---
+        long hunkered = 0;
+        for (int i = 0; i < n; i++) {
+            if (s.isAlive(i) && combatType(combats[i]) == TYPE_HUNKER) hunkered |= 1L << i;
+        }
+
+        // --- 3. SHOOT and THROW, resolved simultaneously on pre-combat wetness ---
+        long shot = 0;
+        for (int i = 0; i < n; i++) {
+            damage[i] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            if (!s.isAlive(i)) continue;
+            int type = combatType(combats[i]);
+            int arg = combatArg(combats[i]);
+
+            if (type == TYPE_SHOOT) {
+                if (s.cooldown[i] > 0 || arg >= n || !s.isAlive(arg) || s.player[arg] == s.player[i]) continue;
+                boolean targetHunkered = (hunkered & (1L << arg)) != 0;
+                damage[arg] += (int) s.damageTable[i].damage(s.tile[i], s.tile[arg], targetHunkered);
+                write(s, s.cooldown, Zobrist.FIELD_COOLDOWN, i, s.shootCooldown[i]);
+                shot |= 1L << i;
+            } else if (type == TYPE_THROW) {
+                if (s.splash[i] <= 0 || arg >= s.ctx.tileCount) continue;
+                if (s.ctx.manhattan(s.tile[i], arg) > Agent.splashBombRange) continue;
+                write(s, s.splash, Zobrist.FIELD_SPLASH, i, s.splash[i] - 1);
+                for (int j = 0; j < n; j++) {
+                    if (s.isAlive(j) && s.ctx.inSplash(arg, s.tile[j])) damage[j] += Agent.SPLASH_DAMAGE;
+                }
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            if (!s.isAlive(i)) continue;
+            write(s, s.wetness, Zobrist.FIELD_WETNESS, i, Math.min(100, s.wetness[i] + damage[i]));
+            if ((shot & (1L << i)) == 0 && s.cooldown[i] > 0) write(s, s.cooldown, Zobrist.FIELD_COOLDOWN, i, s.cooldown[i] - 1);
+        }
+
+        // --- 4. Removal of soaked agents ---
+        for (int i = 0; i < n; i++) {
+            if (s.isAlive(i) && s.wetness[i] >= 100) {
+                s.alive &= ~(1L << i);
+                s.hash ^= Zobrist.alive[i] ^ Zobrist.key(Zobrist.FIELD_TILE, i, s.tile[i]) ^ Zobrist.key(Zobrist.FIELD_COOLDOWN, i, s.cooldown[i])
+                        ^ Zobrist.key(Zobrist.FIELD_SPLASH, i, s.splash[i]) ^ Zobrist.key(Zobrist.FIELD_WETNESS, i, s.wetness[i]);
+            }
+        }
+
+        // --- 5. Territory scoring ---
+        int diff = s.ctx.territory.territoryDiff(s.tile, s.player, s.wetness, n, s.alive);
+        if (diff > 0) s.score[0] += diff;
+        else s.score[1] -= diff;
+        s.hash ^= Zobrist.turnKey(s.turn) ^ Zobrist.turnKey(s.turn + 1);
+        s.turn++;
+    }
+
+    // Winner by the statement's victory conditions: -1 while the game goes on, 2 for a draw
+    public static int winner(GameState s) {
+        boolean p0Alive = false;
+        boolean p1Alive = false;
+        for (int i = 0; i < s.count; i++) {
+            if (!s.isAlive(i)) continue;
+            if (s.player[i] == 0) p0Alive = true;
+            else p1Alive = true;
+        }
+        if (!p0Alive && !p1Alive) return 2;
+        if (!p1Alive) return 0;
+        if (!p0Alive) return 1;
+        if (s.score[0] - s.score[1] >= WIN_SCORE_LEAD) return 0;
+        if (s.score[1] - s.score[0] >= WIN_SCORE_LEAD) return 1;
+        if (s.turn >= MAX_TURNS) return s.score[0] > s.score[1] ? 0 : s.score[1] > s.score[0] ? 1 : 2;
+        return -1;
+    }
+}
@@ -0,0 +1,144 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Local tool, not part of the submission. Validates the incremental Zobrist key against a full rehash on random
+ * playouts, then compares nodes/sec of depth-first expansion that allocates a copy per node or copies into
+ * preallocated per-depth states.
+ *
+ * Usage: java SimulatorBenchmark [seed]
+ */
+public class SimulatorBenchmark {
+    static final int BRANCHING = 6;
+    static final int DEPTH = 6;
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        Random random = new Random(seed);
+
+        GameState root = randomGame(random, 20, 10, 10);
+
+        int checked = validate(random, root, 2000, 8);
+        System.out.println("incremental hash matched a full rehash on " + checked + " nodes");
+
+        // Warm up both paths before timing
+        for (int i = 0; i < 5; i++) {
+            expandWithAllocation(root, seed);
+            expandWithCopies(root, seed);
+        }
+
+        long start = System.nanoTime();
+        long allocNodes = expandWithAllocation(root, seed);
+        double allocSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        long copyNodes = expandWithCopies(root, seed);
+        double copySeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("new copy per node:  %d nodes in %.3f s, %.0f nodes/s%n", allocNodes, allocSeconds, allocNodes / allocSeconds);
+        System.out.printf("copy into buffers:  %d nodes in %.3f s, %.0f nodes/s%n", copyNodes, copySeconds, copyNodes / copySeconds);
+    }
+
+    // Builds a random map with the precomputed tables, and a state with agents on walkable tiles
+    static GameState randomGame(Random random, int width, int height, int agentCount) {
+        Tile[][] map = new Tile[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int type = random.nextDouble() < 0.15 ? 1 + random.nextInt(2) : 0;
+                map[x][y] = new Tile(x, y, type);
+            }
+        }
+        GameContext ctx = new GameContext(0);
+        ctx.precomputeMap(map);
+
+        List<Agent> agents = new ArrayList<>();
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < agentCount; i++) {
+            Agent a = new Agent(ctx, i % 2, i, 1 + random.nextInt(3), 2 + random.nextInt(5), 8 + random.nextInt(25), 1 + random.nextInt(3), false);
+            int id;
+            do {
+                id = random.nextInt(ctx.tileCount);
+            } while (ctx.byId[id].value != 0 || used.contains(id));
+            used.add(id);
+            a.update(ctx.byId[id].x, ctx.byId[id].y, 0, a.splashBombs, random.nextInt(60), true);
+            agents.add(a);
+        }
+        return new GameState(ctx, agents);
+    }
+
+    static void randomActions(Random random, GameState s, int[] moves, int[] combats) {
+        for (int i = 0; i < s.count; i++) {
+            int[] neighbors = s.ctx.byId[s.tile[i]].neighborIds;
+            int pick = random.nextInt(neighbors.length + 1);
+            moves[i] = pick == neighbors.length ? Simulator.NO_MOVE : neighbors[pick];
+
+            switch (random.nextInt(4)) {
+                case 0: combats[i] = Simulator.COMBAT_NONE; break;
+                case 1: combats[i] = Simulator.HUNKER; break;
+                case 2: combats[i] = Simulator.shoot(random.nextInt(s.count)); break;
+                default:
+                    Tile t = s.ctx.byId[s.tile[i]];
+                    int x = Math.max(0, Math.min(s.ctx.width - 1, t.x + random.nextInt(5) - 2));
+                    int y = Math.max(0, Math.min(s.ctx.height - 1, t.y + random.nextInt(5) - 2));
+                    combats[i] = Simulator.throwAt(y * s.ctx.width + x);
+            }
+        }
+    }
+
+    // Random playouts checking the incremental hash after every step
+    static int validate(Random random, GameState root, int playouts, int depth) {
+        Simulator sim = new Simulator();
+        int[] moves = new int[root.count];
+        int[] combats = new int[root.count];
+        int checked = 0;
+
+        for (int p = 0; p < playouts; p++) {
+            GameState state = new GameState(root);
+            for (int d = 0; d < depth && Simulator.winner(state) < 0; d++) {
+                randomActions(random, state, moves, combats);
+                sim.step(state, moves, combats);
+                if (state.hash != Zobrist.hash(state)) throw new IllegalStateException("incremental hash differs at depth " + d);
+                checked++;
+            }
+        }
+        return checked;
+    }
+
+    static long expandWithAllocation(GameState root, long seed) {
+        Random random = new Random(seed);
+        return allocating(new Simulator(), random, root, 0, new int[root.count], new int[root.count]);
+    }
+
+    private static long allocating(Simulator sim, Random random, GameState parent, int depth, int[] moves, int[] combats) {
+        if (depth == DEPTH) return 1;
+        long nodes = 1;
+        for (int b = 0; b < BRANCHING; b++) {
+            GameState child = new GameState(parent);
+            randomActions(random, child, moves, combats);
+            sim.step(child, moves, combats);
+            nodes += allocating(sim, random, child, depth + 1, moves, combats);
+        }
+        return nodes;
+    }
+
+    static long expandWithCopies(GameState root, long seed) {
+        Random random = new Random(seed);
+        GameState[] stack = new GameState[DEPTH + 1];
+        for (int d = 0; d <= DEPTH; d++) stack[d] = new GameState(root);
+        return copies(new Simulator(), random, stack, 0, new int[root.count], new int[root.count]);
+    }
+
+    private static long copies(Simulator sim, Random random, GameState[] stack, int depth, int[] moves, int[] combats) {
+        if (depth == DEPTH) return 1;
+        long nodes = 1;
+        for (int b = 0; b < BRANCHING; b++) {
+            GameState child = stack[depth + 1];
+            stack[depth].copyInto(child);
+            randomActions(random, child, moves, combats);
+            sim.step(child, moves, combats);
+            nodes += copies(sim, random, stack, depth + 1, moves, combats);
+        }
+        return nodes;
+    }
+}
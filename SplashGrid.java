@@ -0,0 +1,130 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * chooseBombTarget's throw score for every blast center at once, built by scattering each agent into the centers
+ * that would hit it (a 3x3 box) and the centers it could walk into (the ring two steps out in a straight line).
+ * Scores are kept from player 0's side, so one grid serves both teams' throwers. They're stored in eighths of a
+ * point, which every escape discount is a whole multiple of, so the sums are exact and near-ties never reorder.
+ */
+public class SplashGrid {
+    static final int UNIT = 8;
+    static final int FULL_HIT = Agent.SPLASH_DAMAGE * UNIT;
+    static final int ESCAPED_HIT = FULL_HIT * 45 / 100; // Damage kept when the hit agent has escapes, split between them
+    static final int WALK_IN = FULL_HIT * 15 / 100; // Chance an enemy next to the blast steps into it
+
+    final GameContext ctx;
+    final int[] hit; // Escape-discounted damage per center, player 1 hits positive, player 0 hits negative
+    final int[] ring; // Agents on the walk-in ring, flattened as player * tileCount + center
+    final Bitboard[] occupancy = {new Bitboard(), new Bitboard()}; // Tiles of the agents in the grid, by player
+    final Bitboard[] soakable = {new Bitboard(), new Bitboard()}; // Those a splash hit takes to 100 wetness, by player
+    private GameState pending; // State given to build(GameState) that no query has scattered yet
+
+    public SplashGrid(GameContext ctx) {
+        this.ctx = ctx;
+        hit = new int[ctx.tileCount];
+        ring = new int[2 * ctx.tileCount];
+    }
+
+    public void build(Collection<Agent> agents) {
+        clear();
+        for (Agent a : agents) {
+            if (a.active) scatter(ctx.map[a.x][a.y], a.player, a.wetness);
+        }
+    }
+
+    /**
+     * The same grid over a simulated state's live slots, the rollouts build one per step and share it between slots.
+     * The scatter waits for the first query, most steps have no thrower in reach, so s must not change before then.
+     */
+    public void build(GameState s) {
+        pending = s;
+    }
+
+    private void scatterPending() {
+        GameState s = pending;
+        clear();
+        for (int i = 0; i < s.count; i++) {
+            if (s.isAlive(i)) scatter(ctx.byId[s.tile[i]], s.player[i], s.wetness[i]);
+        }
+    }
+
+    private void clear() {
+        Arrays.fill(hit, 0);
+        Arrays.fill(ring, 0);
+        pending = null;
+        for (int p = 0; p < 2; p++) {
+            occupancy[p].clear();
+            soakable[p].clear();
+        }
+    }
+
+    private void scatter(Tile at, int player, int wetness) {
+        int side = player == 0 ? -1 : 1;
+
+        for (int dX = -1; dX <= 1; dX++) {
+            for (int dY = -1; dY <= 1; dY++) {
+                int cX = at.x + dX;
+                int cY = at.y + dY;
+                if (cX < 0 || cX >= ctx.width || cY < 0 || cY >= ctx.height) continue;
+                int center = cY * ctx.width + cX;
+                hit[center] += side * hitDamage(at, cX, cY);
+            }
+        }
+
+        int base = player * ctx.tileCount;
+        if (at.x - 2 >= 0) ring[base + at.id - 2]++;
+        if (at.x + 2 < ctx.width) ring[base + at.id + 2]++;
+        if (at.y - 2 >= 0) ring[base + at.id - 2 * ctx.width]++;
+        if (at.y + 2 < ctx.height) ring[base + at.id + 2 * ctx.width]++;
+
+        occupancy[player].set(at.id);
+        if (wetness + Agent.SPLASH_DAMAGE >= 100) soakable[player].set(at.id);
+    }
+
+    // Damage in units to an agent on at from a blast centered on (cX, cY), which must hit it
+    private int hitDamage(Tile at, int cX, int cY) {
+        // If the agent can easily escape, reduce the value of hitting them. A neighbor escapes the 3x3 box when it
+        // leaves it on either axis, the same test as GameContext.inSplash without the board lookup.
+        int numEscapes = 0;
+        for (int escape : at.neighborIds) {
+            Tile e = ctx.byId[escape];
+            if (Math.abs(e.x - cX) > 1 || Math.abs(e.y - cY) > 1) numEscapes++;
+        }
+        return numEscapes > 0 ? ESCAPED_HIT / numEscapes : FULL_HIT;
+    }
+
+    // Throw score at center for a thrower owned by player
+    public double score(int center, int player) {
+        if (pending != null) scatterPending();
+        int net = player == 0 ? hit[center] : -hit[center];
+        return (net + WALK_IN * ring[(1 - player) * ctx.tileCount + center]) / (double) UNIT;
+    }
+
+    /**
+     * Best blast center within throwing range of fromTile scoring above threshold, or -1. Centers are scanned in the
+     * order chooseBombTarget always used, so ties resolve the same way.
+     */
+    public int bestTarget(int fromTile, int player, double threshold) {
+        if (pending != null) scatterPending();
+        Tile from = ctx.byId[fromTile];
+        int best = -1;
+        double bestScore = threshold;
+        int range = Agent.splashBombRange;
+        for (int dX = -range; dX <= range; dX++) {
+            for (int dY = -(range - Math.abs(dX)); dY <= range - Math.abs(dX); dY++) {
+                int cX = from.x + dX;
+                int cY = from.y + dY;
+                if (cX < 0 || cX >= ctx.width || cY < 0 || cY >= ctx.height) continue;
+                int center = cY * ctx.width + cX;
+                double score = score(center, player);
+                if (score > bestScore) {
+                    best = center;
+                    bestScore = score;
+                }
+            }
+        }
+        return best;
+    }
+}
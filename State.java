@@ -3,22 +3,52 @@ import java.io.*;
 import java.math.*;
 
 public class State {
-    Map<Integer, Agent> allAgents;
+    final GameContext ctx;
+    final GameState game;
+    final Agent[] agents; // Live agent registry by slot, only used for the per-game stats and heuristics
 
     // Heuristic weights - TUNE THESE!
     static final double W_DAMAGE_TAKEN = -2.0;
     static final double W_DAMAGE_PROBABLE = 0.5; // Probability of getting shot if I'm not being targeted
-    static final double W_TERRITORY_CAPTURE = 4.0;
+    static final double W_TERRITORY_CAPTURE = 4.0; // Per tile of territory difference gained
     static final double W_STRATEGIC_GOAL = 25.0; // High base weight for strategic goals
     static final double W_COVER = 1.0;
     static final double W_SPLASH_CLUSTER = -30.0; // Penalty for clustering around agents with bombs
     static final double W_SPLASH_SPOT = -10.0; // Penalty for moving into spaces that agents are likely going to shoot bombs
     static final double W_FOCUS_TARGET = 15.0;
-    static Map<Integer, Tile> strategicGoals;
+    static final double W_COMBAT = 0.5; // Per point of the best shot or throw the move tile allows, in CombatAllocator's units
+    static final double W_CHOKEPOINT = 0.0; // Per enemy with bombs in reach of a chokepoint, off: no tried weight beat 0 in greedy self-play
+    static final double W_DIRECTIONAL_COVER = 0.0; // Per full wall between the tile and an enemy that can shoot it, off for the same reason
+    static final double JOINT_TIME_SHARE = 0.25; // Share of the turn's remaining search time the joint move optimizer may use
+
+    // Enemy intentions guessed at the start of planning, by slot
+    final int[] predictedShot; // Target slot or -1
+    final int[] predictedBomb; // Target tile id or -1
+    final ThreatMap threats; // Built once per turn from the predictions, shared with the planning copies
+    final ActionGenerator[] actions; // (move, combat) scores for my agents by slot, shared with the planning copies
+
+    public State(GameContext ctx, Collection<Agent> agents){
+        this.ctx = ctx;
+        this.game = new GameState(ctx, agents);
+        this.agents = new Agent[game.count];
+        for (Agent a : agents) this.agents[game.slotOf(a.agentId)] = a;
+        this.predictedShot = new int[game.count];
+        this.predictedBomb = new int[game.count];
+        Arrays.fill(predictedShot, -1);
+        Arrays.fill(predictedBomb, -1);
+        this.threats = new ThreatMap(ctx);
+        this.actions = new ActionGenerator[game.count];
+    }
 
-    public State(Collection<Agent> agents){
-        this.allAgents = new HashMap<>();
-        for (Agent a : agents) this.allAgents.put(a.agentId, a.clone());
+    // Planning copy, the per-game arrays are shared and only the turn by turn values are copied
+    public State(State o) {
+        this.ctx = o.ctx;
+        this.game = new GameState(o.game);
+        this.agents = o.agents;
+        this.predictedShot = o.predictedShot.clone();
+        this.predictedBomb = o.predictedBomb.clone();
+        this.threats = o.threats;
+        this.actions = o.actions;
     }
     
     static class Action {
@@ -29,16 +59,22 @@ public class State {
         public String toString() { return this.toCommandString(); }
     }
 
+    // Moves an agent and keeps the hash in sync
+    void moveAgent(int slot, Tile target) {
+        game.hash ^= Zobrist.key(Zobrist.FIELD_TILE, slot, game.tile[slot]) ^ Zobrist.key(Zobrist.FIELD_TILE, slot, target.id);
+        game.tile[slot] = target.id;
+    }
+
     public List<Action> getBestActionsForTurn(int turnCounter) {
         List<Action> chosenActions = new ArrayList<>();
-        State planningState = new State(this.allAgents.values());
-        Set<Tile> claimedTiles = new HashSet<>();
+        Bitboard claimedTiles = new Bitboard();
 
         List<Agent> myAgents = new ArrayList<>();
         List<Agent> enemyAgents = new ArrayList<>();
-        for(Agent a : this.allAgents.values()) {
+        List<Agent> allAgents = Arrays.asList(this.agents);
+        for(Agent a : this.agents) {
             if(a.active) {
-                if(a.player == Player.playerId) myAgents.add(a);
+                if(a.player == ctx.playerId) myAgents.add(a);
                 else enemyAgents.add(a);
             }
         }
@@ -48,49 +84,50 @@ public class State {
         double agentAdvantage = myAgents.size() / (double) Math.max(1, enemyAgents.size());
         Agent teamTarget = findTeamTarget(enemyAgents);
         //if (turnCounter == 1) {
-            strategicGoals = assignStrategicGoals(myAgents, enemyAgents);
+            ctx.strategicGoals = assignStrategicGoals(myAgents, enemyAgents);
         //}
 
         // Guess bomb positions for the enemy
         // Assume they will immediately use bomb
-        planningState.allAgents.values().forEach(a -> {
-            if (a.player == Player.enemyId) {
-                a.chooseBombTarget(this.allAgents.values(), Player.map, 0);
-            }
-        });
-        planningState.allAgents.values().forEach(a -> {
-            if (a.player == Player.enemyId) {
-                a.chooseShotTarget(myAgents);    
-            }
-        }); // Find out who enemy is likely to shoot
+        SplashGrid splashGrid = new SplashGrid(ctx);
+        splashGrid.build(allAgents);
+        for (Agent a : enemyAgents) {
+            a.chooseBombTarget(splashGrid, allAgents, ctx.map, 0);
+            a.chooseShotTarget(myAgents); // Find out who enemy is likely to shoot
+            int slot = game.slotOf(a.agentId);
+            predictedBomb[slot] = a.bombTarget != null ? a.bombTarget.id : -1;
+            predictedShot[slot] = a.shootId != null ? game.slotOf(a.shootId.agentId) : -1;
+        }
+        threats.build(game, ctx.enemyId, predictedBomb, W_DAMAGE_PROBABLE);
+        for (Agent a : myAgents) {
+            actions[game.slotOf(a.agentId)] = new ActionGenerator(a, allAgents, splashGrid);
+        }
 
         System.err.print("I think agents will shoot at: ");
-        planningState.allAgents.values().forEach(a -> {
-            if (a.player == Player.enemyId) {
-                System.err.print(a.agentId + "->" + a.shootId + " ");
-            }
-        });
+        for (Agent a : enemyAgents) System.err.print(a.agentId + "->" + a.shootId + " ");
 
         System.err.print("\nI think agents will throw at: ");
-        planningState.allAgents.values().forEach(a -> {
-            if (a.player == Player.enemyId) {
-                System.err.print(a.agentId + "->" + a.bombTarget + " ");
-            }
-        });
+        for (Agent a : enemyAgents) System.err.print(a.agentId + "->" + a.bombTarget + " ");
         System.err.print("\n");
 
-        System.err.println("Strategic Goals: " + strategicGoals);
+        System.err.println("Strategic Goals: " + ctx.strategicGoals);
         System.err.println("Team Target: " + teamTarget + " Advantage: " + agentAdvantage);
 
+        State planningState = new State(this);
         for (Agent agent : myAgents) {
-            Tile strategicGoal = strategicGoals.get(agent.agentId);
+            Tile strategicGoal = ctx.strategicGoals.get(agent.agentId);
             Action bestActionForAgent = findBestMoveForAgent(agent, planningState, agentAdvantage, teamTarget, strategicGoal, claimedTiles, turnCounter);
             chosenActions.add(bestActionForAgent);
             
-            claimedTiles.add(bestActionForAgent.moveTarget);
-            planningState.allAgents.get(agent.agentId).x = bestActionForAgent.moveTarget.x;
-            planningState.allAgents.get(agent.agentId).y = bestActionForAgent.moveTarget.y;
+            claimedTiles.set(bestActionForAgent.moveTarget.id);
+            planningState.moveAgent(game.slotOf(agent.agentId), bestActionForAgent.moveTarget);
         }
+
+        // Early agents can block better team configurations, so improve on the greedy pass with the whole team at once
+        JointMoveOptimizer joint = new JointMoveOptimizer(this, myAgents, agentAdvantage, teamTarget, ctx.strategicGoals, turnCounter);
+        long deadline = ctx.budget.now() + (long) (ctx.budget.remainingNanos() * JOINT_TIME_SHARE);
+        chosenActions = joint.optimize(chosenActions, deadline);
+        System.err.println(joint.report());
         return chosenActions;
     }
     
@@ -109,8 +146,8 @@ public class State {
 
         double enemyCentroidX, enemyCentroidY;
         if (enemyAgents.isEmpty()) {
-            enemyCentroidX = Player.map.length / 2.0;
-            enemyCentroidY = Player.map[0].length / 2.0;
+            enemyCentroidX = ctx.map.length / 2.0;
+            enemyCentroidY = ctx.map[0].length / 2.0;
         } else {
             enemyCentroidX = 0; enemyCentroidY = 0;
             for (Agent a : enemyAgents) { enemyCentroidX += a.x; enemyCentroidY += a.y; }
@@ -129,14 +166,14 @@ public class State {
 
         // 3. Generate Strategic Points along the line
         List<Tile> strategicPoints = new ArrayList<>();
-        double spread = (Player.map.length + Player.map[0].length) / (double) (myAgents.size() + 1) / 2.0;
+        double spread = (ctx.map.length + ctx.map[0].length) / (double) (myAgents.size() + 1) / 2.0;
         for (int i = 0; i < myAgents.size(); i++) {
             double offset = (i - (myAgents.size() - 1) / 2.0) * spread;
             int targetX = (int)Math.round(midX + offset * perpX);
             int targetY = (int)Math.round(midY + offset * perpY);
-            targetX = Math.max(0, Math.min(Player.map.length - 1, targetX));
-            targetY = Math.max(0, Math.min(Player.map[0].length - 1, targetY));
-            strategicPoints.add(findNearestWalkable(Player.map[targetX][targetY]));
+            targetX = Math.max(0, Math.min(ctx.map.length - 1, targetX));
+            targetY = Math.max(0, Math.min(ctx.map[0].length - 1, targetY));
+            strategicPoints.add(ctx.byId[ctx.analysis.nearestWalkable[ctx.map[targetX][targetY].id]]);
         }
 
         // 4. Assign agents to nearest unassigned strategic point
@@ -159,48 +196,13 @@ public class State {
         return assignments;
     }
 
-    // Helper to find a walkable tile if a strategic point is inside a wall.
-    private Tile findNearestWalkable(Tile start) {
-        if (start.value == 0) return start;
-        Queue<Tile> queue = new ArrayDeque<>();
-        Set<Tile> visited = new HashSet<>();
-        queue.add(start);
-        visited.add(start);
-
-        // Standard BFS logic
-        int[] dx = {0, 0, 1, -1}; // Directions for neighbors (right, left, down, up)
-        int[] dy = {1, -1, 0, 0};
-
-        while (!queue.isEmpty()) {
-            Tile current = queue.poll();
-
-            for (int i = 0; i < 4; i++) {
-                int newX = current.x + dx[i];
-                int newY = current.y + dy[i];
-
-                if (newX >= 0 && newX < Player.map.length && newY >= 0 && newY < Player.map[0].length) {
-
-                    Tile neighbor = Player.map[newX][newY];
-
-                    if(!visited.contains(neighbor)){
-                        if(neighbor.value == 0) return neighbor;
-                        visited.add(neighbor);
-                        queue.add(neighbor);
-                    }
-                }
-            }
-        }
-        // This is flawed because walls don't have neighbors lol
-        return start; // Fallback 
-    }
-    
     private Agent findTeamTarget(List<Agent> enemies) {
         if (enemies.isEmpty()) return null;
         Agent bestTarget = null;
         double lowestScore = Double.POSITIVE_INFINITY;
         for (Agent enemy : enemies) {
             double under50Bonus = enemy.wetness < 50 ? 50 - enemy.wetness*1.5 : 100 - enemy.wetness*1.5;
-            double score = (under50Bonus) * enemy.getPositionAsTile().distanceTo(Player.map[Player.map.length/2][Player.map[0].length/2]);
+            double score = (under50Bonus) * enemy.getPositionAsTile().distanceTo(ctx.map[ctx.map.length/2][ctx.map[0].length/2]);
             if (score < lowestScore) {
                 lowestScore = score;
                 bestTarget = enemy;
@@ -209,7 +211,7 @@ public class State {
         return bestTarget;
     }
 
-    private Action findBestMoveForAgent(Agent agent, State currentState, double agentAdvantage, Agent teamTarget, Tile strategicGoal, Set<Tile> claimedTiles, int turnCounter) {
+    private Action findBestMoveForAgent(Agent agent, State currentState, double agentAdvantage, Agent teamTarget, Tile strategicGoal, Bitboard claimedTiles, int turnCounter) {
         Action bestAction = new Action(agent.agentId, agent.getPositionAsTile());
         double bestScore = Double.NEGATIVE_INFINITY;
 
@@ -227,125 +229,153 @@ public class State {
         return bestAction;
     }
 
-    private double evaluateMove(Agent agent, Tile moveTile, State currentState, double agentAdvantage, Agent teamTarget, Tile strategicGoal, Set<Tile> claimedTiles, int turnCounter) {
-        if (claimedTiles.contains(moveTile)) {
+    private double evaluateMove(Agent agent, Tile moveTile, State currentState, double agentAdvantage, Agent teamTarget, Tile strategicGoal, Bitboard claimedTiles, int turnCounter) {
+        if (claimedTiles.get(moveTile.id)) {
             return Double.NEGATIVE_INFINITY;
         }
 
         double score = 0.0;
-        
-        List<Agent> enemies = new ArrayList<>();
-        List<Agent> teammates = new ArrayList<>();
-        for(Agent a : currentState.allAgents.values()){
-            if(!a.active) continue;
-            if(a.player == Player.enemyId) enemies.add(a);
-            else if(a.agentId != agent.agentId) teammates.add(a);
-        }
+        GameState planned = currentState.game;
+        int agentSlot = planned.slotOf(agent.agentId);
 
         // --- 1. Safety (with 1-ply lookahead) ---
-        double potentialDamage = 0;
-        double coverBonus = 0;
+        score += currentState.safetyScore(agent, agentSlot, moveTile);
 
-        double[][] dmgRedAtMove = Tile.damageReductionGradient.get(moveTile);
-        for (Agent enemy : enemies) {
-            coverBonus += dmgRedAtMove[enemy.x][enemy.y];
+        System.err.print(agent.agentId + "->" + moveTile + ", damage + cover: " + score);
 
-            // Adding some pseudo-lookahead pizzazz
-            for (Tile neighbor : moveTile.getNeighbors()) {
-                coverBonus += Tile.damageReductionGradient.get(neighbor)[enemy.x][enemy.y] / 2.0;
-                for (Tile nextN: neighbor.getNeighbors()) {
-                    coverBonus += Tile.damageReductionGradient.get(nextN)[enemy.x][enemy.y] / 3.0;
-                }
-            }
-            
-            double baseDamage = enemy.calculateDamageShootingAt(moveTile.x, moveTile.y, false); // Assume worst case, change to agent.cooldown > 0 for aa bit more assumption
+        // --- 2. Splash Bomb Awareness --- (Prevents agents from clustering when the enemy has splash bombs left)
+        double splashPenalty = currentState.clusterPenalty(agentSlot, moveTile);
+        score += splashPenalty;
 
-            // If I'm likely to be shot
-            if (enemy.shootId == agent) {
-                potentialDamage += baseDamage;
-            } 
-            
-            // If I'm moving to a place to be shot (therefore 1.5 if I'm going to be shot, 0.5 otherwise)
-            if (enemy.cooldown == 0) {
-                potentialDamage += W_DAMAGE_PROBABLE * baseDamage; // Assuming I'll hunker if I can't shoot
-            }
-        }
+        // 2.b. Run away from likely splashed areas (if I'm worried about my health)
+        double bombAreaPenalty = currentState.bombAreaScore(agent, moveTile);
+        score += bombAreaPenalty;
+
+        System.err.print(", splash Scare: " + (splashPenalty + bombAreaPenalty));
+        double oS = score;
 
-        double wetnessMultiplier = 1.0 + (agent.wetness / 50.0); // Higher wetness equals more damage consideration
-        score += potentialDamage * W_DAMAGE_TAKEN * wetnessMultiplier;
-        score += coverBonus * W_COVER;
+        // --- 3. Territory Control ---
+        // Real territory difference after the move, with the other agents where planning currently has them
+        int fromTile = planned.tile[agentSlot];
+        int sign = agent.player == 0 ? 1 : -1;
+        int territoryBefore = sign * ctx.territory.territoryDiff(planned.tile, planned.player, planned.wetness, planned.count, planned.alive);
+        planned.tile[agentSlot] = moveTile.id;
+        int territoryAfter = sign * ctx.territory.territoryDiff(planned.tile, planned.player, planned.wetness, planned.count, planned.alive);
+        planned.tile[agentSlot] = fromTile;
 
-        System.err.print(agent.agentId + "->" + moveTile + ", damage + cover: " + score);
+        score += (territoryAfter - territoryBefore) * territoryWeight(agentAdvantage);
 
-        // --- 2. Splash Bomb Awareness --- (Prevents agents from clustering when the enemy has splash bombs left)
-        double splashPenalty = 0;
-        for (Agent enemy : enemies) {
-            if (enemy.splash > 0 && enemy.getPositionAsTile().distanceTo(moveTile) <= 6) {
-                for (Agent teammate : teammates) {
-                    if (moveTile.bombDistanceTo(teammate.getPositionAsTile()) <= 2) {
-                        splashPenalty += W_SPLASH_CLUSTER;
-                    }
-                }
+        System.err.print(", territory " + (score - oS));
+        oS = score;
+
+        // --- 4. Strategic Positioning (with decay) ---
+        score += strategicScore(agent, moveTile, strategicGoal, turnCounter);
+
+        System.err.print( ", positioning: " + (score - oS));
+        oS = score;
+
+        // --- 5. Teamwork: Focus Fire ---
+        score += teamworkScore(agent, moveTile, teamTarget, agentAdvantage);
+
+        System.err.print(", Teamwork: " + (score - oS));
+        oS = score;
+
+        // --- 6. Combat: the best shot or throw this tile allows ---
+        score += currentState.combatScore(agentSlot, moveTile);
+
+        System.err.print(", combat: " + (score - oS) + " (" + currentState.actions[agentSlot].describe(moveTile) + ")");
+        oS = score;
+
+        // --- 7. Map features: chokepoints under bomb threat and walls facing the shooters ---
+        score += currentState.terrainScore(moveTile);
+
+        System.err.println(", terrain: " + (score - oS));
+
+        return score;
+    }
+
+    // Damage I expect to take on moveTile, against the cover I'd have there
+    double safetyScore(Agent agent, int agentSlot, Tile moveTile) {
+        // Enemies ready to fire, plus the full shot of any enemy predicted to target this agent
+        double potentialDamage = threats.probableShot[moveTile.id];
+        for (int enemy = 0; enemy < game.count; enemy++) {
+            if (predictedShot[enemy] == agentSlot && game.isAlive(enemy) && game.player[enemy] == ctx.enemyId) {
+                potentialDamage += threats.shotFrom(enemy, moveTile.id);
             }
         }
-        score += splashPenalty;
+        double coverBonus = threats.cover[moveTile.id];
+        return potentialDamage * W_DAMAGE_TAKEN * wetnessMultiplier(agent) + coverBonus * W_COVER;
+    }
 
-        // 2.b. Run away from likely splashed areas (if I'm worried about my health)
-        double bombAreaPenalty = 0;
-        for (Agent enemy : enemies) {
-            if (enemy.bombTarget != null) {
-                if (enemy.bombTarget.bombDistanceTo(moveTile) < 2) {
-                    bombAreaPenalty += W_SPLASH_SPOT;
+    // Penalty for standing within one blast of a teammate where an enemy with bombs can reach, teammates where planning has them
+    double clusterPenalty(int agentSlot, Tile moveTile) {
+        double splashPenalty = 0;
+        int bombers = threats.bombReach[moveTile.id];
+        if (bombers > 0) {
+            for (int teammate = 0; teammate < game.count; teammate++) {
+                if (teammate == agentSlot || !game.isAlive(teammate) || game.player[teammate] == ctx.enemyId) continue;
+                if (moveTile.bombDistanceTo(ctx.byId[game.tile[teammate]]) <= 2) {
+                    splashPenalty += W_SPLASH_CLUSTER * bombers;
                 }
             }
         }
-        score += bombAreaPenalty * wetnessMultiplier;
+        return splashPenalty;
+    }
 
-        System.err.print(", splash Scare: " + (splashPenalty + bombAreaPenalty*wetnessMultiplier));
-        double oS = score;
+    double bombAreaScore(Agent agent, Tile moveTile) {
+        return threats.predictedSplash[moveTile.id] * W_SPLASH_SPOT * wetnessMultiplier(agent);
+    }
 
-        // --- 3. Territory Control ---
-        int distToClosestEnemyAfterMove = 999;
-        for (Agent enemy : enemies) {
-            distToClosestEnemyAfterMove = Math.min(distToClosestEnemyAfterMove, moveTile.distanceTo(enemy.getPositionAsTile()));
-        }
-        int controlDelta = distToClosestEnemyAfterMove - 0;
-        if (controlDelta < 4) {
-            double territoryCaptureScore = (4.0 - controlDelta);
-            double advantageMultiplier = agentAdvantage > 1.0 ? agentAdvantage : 1.0;
-            score += territoryCaptureScore * W_TERRITORY_CAPTURE * advantageMultiplier;
+    double combatScore(int agentSlot, Tile moveTile) {
+        ActionGenerator generator = actions[agentSlot];
+        return generator == null ? 0 : generator.combatValue(moveTile) * W_COMBAT;
+    }
+
+    // Chokepoint and facing wall terms, weighted by the context so a tournament bot spec can turn them up
+    double terrainScore(Tile moveTile) {
+        double score = 0;
+        if (ctx.analysis.chokepoints.get(moveTile.id)) score += threats.bombReach[moveTile.id] * ctx.chokepointWeight;
+        for (int enemy = 0; enemy < game.count; enemy++) {
+            if (!game.isAlive(enemy) || game.player[enemy] != ctx.enemyId) continue;
+            if (ctx.manhattan(moveTile.id, game.tile[enemy]) > 2 * game.optimalRange[enemy]) continue;
+            score += ctx.analysis.coverFacing(moveTile.id, game.tile[enemy]) / 100.0 * ctx.directionalCoverWeight;
         }
+        return score;
+    }
 
-        System.err.print(", territory " + (score - oS));
-        oS = score;
-        
-        // --- 4. Strategic Positioning (with decay) ---
+    // Higher wetness equals more damage consideration
+    static double wetnessMultiplier(Agent agent) {
+        return 1.0 + (agent.wetness / 50.0);
+    }
+
+    static double territoryWeight(double agentAdvantage) {
+        double territoryMultiplier = agentAdvantage > 1.0 ? agentAdvantage : 1.0;
+        return W_TERRITORY_CAPTURE * territoryMultiplier;
+    }
+
+    static double strategicScore(Agent agent, Tile moveTile, Tile strategicGoal, int turnCounter) {
         if (strategicGoal != null) {
             int oldDist = agent.getPositionAsTile().agentPathDistanceTo(strategicGoal); // use path distance instead
             int newDist = moveTile.agentPathDistanceTo(strategicGoal); // use path distance instead
             if (newDist < oldDist) {
                 // The strategic goal is most important in the first ~50 turns.
                 double strategicGoalDecay = Math.max(0, 1.0 - (turnCounter / 50.0));
-                score += W_STRATEGIC_GOAL * strategicGoalDecay;
+                return W_STRATEGIC_GOAL * strategicGoalDecay;
             }
         }
+        return 0;
+    }
 
-        System.err.print( ", positioning: " + (score - oS));
-        oS = score;
-
-        // --- 5. Teamwork: Focus Fire ---
+    static double teamworkScore(Agent agent, Tile moveTile, Agent teamTarget, double agentAdvantage) {
         if (teamTarget != null) {
             int oldDist = agent.getPositionAsTile().distanceTo(teamTarget.getPositionAsTile());
             int newDist = moveTile.distanceTo(teamTarget.getPositionAsTile());
             if (newDist < oldDist) {
                 double rangeMultiplier = 4.0 / Math.max(1.0, agent.optimalRange);
                 double advantageMultiplier = agentAdvantage > 1.0 ? agentAdvantage : 1.0;
-                score += W_FOCUS_TARGET * rangeMultiplier * advantageMultiplier;
+                return W_FOCUS_TARGET * rangeMultiplier * advantageMultiplier;
             }
         }
-        
-        System.err.println(", Teamwork: " + (score - oS));
-
-        return score;
+        return 0;
     }
 }
@@ -3,94 +3,132 @@ import java.io.*;
 import java.math.*;
 
 /**
- * Main class to calculate territory control. Unused.
+ * Territory scoring following the game rules: a tile belongs to the player with the closest agent (Manhattan distance),
+ * distances to agents with wetness >= 50 are doubled and ties are contested.
+ * Distances are rows of the context's Manhattan table, so one evaluation is a min-reduction per agent over the tile array.
  */
 public class TerritoryCalculator {
 
+    private final int tileCount;
+    private final byte[] manhattan; // The context's table, read a row at a time instead of through GameContext.manhattan
+
+    // Scratch rows reused by every evaluation, one calculator per context keeps them thread confined
+    private final int[] closest0;
+    private final int[] closest1;
+
+    // Agents and result of the last evaluation, packed per agent as tile, owner and doubling. Simulator.step scores
+    // the territory of the state the planners evaluate next, so that repeat is answered without a pass over the tiles.
+    private final int[] lastKeys = new int[64];
+    private int lastCount = -1;
+    private int lastDiff;
+
+    public TerritoryCalculator(GameContext ctx) {
+        int n = ctx.tileCount;
+        tileCount = n;
+        manhattan = ctx.manhattanDistances;
+        closest0 = new int[n];
+        closest1 = new int[n];
+    }
+
     /**
-     * Calculates the number of tiles closer to each player's agents.
+     * Returns tiles controlled by player 0 minus tiles controlled by player 1.
      *
+     * @param tiles      tile id of each agent
+     * @param players    owner of each agent
+     * @param wetness    wetness of each agent
+     * @param count      number of agents in the arrays
+     * @param aliveMask  bit i set when agent i is still in play
      */
-    public static TerritoryResult calculateTerritory(Tile[][] map, Collection<Agent> agents) {
-        if (map == null || map.length == 0 || map[0].length == 0) {
-            return new TerritoryResult(0, 0);
-        }
-
-        int width = map.length;
-        int height = map[0].length;
-
-        // Step 1: Create distance maps for each player.
-        // Initialize with a large value to represent infinity.
-        int[][] distancesToPlayer0 = new int[width][height];
-        int[][] distancesToPlayer1 = new int[width][height];
-
-        for (int i = 0; i < width; i++) {
-            Arrays.fill(distancesToPlayer0[i], Integer.MAX_VALUE);
-            Arrays.fill(distancesToPlayer1[i], Integer.MAX_VALUE);
+    public int territoryDiff(int[] tiles, int[] players, int[] wetness, int count, long aliveMask) {
+        boolean same = count == lastCount;
+        for (int i = 0; i < count; i++) {
+            int key = (aliveMask & (1L << i)) == 0 ? -1 : (tiles[i] * 2 + players[i]) * 2 + (wetness[i] >= 50 ? 1 : 0);
+            same &= lastKeys[i] == key;
+            lastKeys[i] = key;
         }
-
-        // Step 2: Run a multi-source BFS for each player to calculate shortest distances.
-        calculateDistancesForPlayer(map, agents, 0, distancesToPlayer0);
-        calculateDistancesForPlayer(map, agents, 1, distancesToPlayer1);
-
-        // Step 3: Compare the distance maps to determine territory.
-        int player0Territory = 0;
-        int player1Territory = 0;
-
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                if (distancesToPlayer0[i][j] < distancesToPlayer1[i][j]) {
-                    player0Territory++;
-                } else if (distancesToPlayer1[i][j] < distancesToPlayer0[i][j]) {
-                    player1Territory++;
-                }
-                // If distances are equal, the tile is contested and belongs to neither.
+        if (same) return lastDiff;
+        lastCount = count;
+
+        int n = tileCount;
+        int[] d0 = closest0;
+        int[] d1 = closest1;
+        Arrays.fill(d0, Integer.MAX_VALUE);
+        Arrays.fill(d1, Integer.MAX_VALUE);
+
+        for (int i = 0; i < count; i++) {
+            if ((aliveMask & (1L << i)) == 0) continue;
+            int[] best = players[i] == 0 ? d0 : d1;
+            int shift = wetness[i] >= 50 ? 1 : 0;
+            int row = tiles[i] * n;
+            for (int t = 0; t < n; t++) {
+                int d = manhattan[row + t] << shift;
+                if (d < best[t]) best[t] = d;
             }
         }
 
-        return new TerritoryResult(player0Territory, player1Territory);
+        int diff = 0;
+        for (int t = 0; t < n; t++) {
+            if (d0[t] < d1[t]) diff++;
+            else if (d1[t] < d0[t]) diff--;
+            // If distances are equal, the tile is contested and belongs to neither.
+        }
+        lastDiff = diff;
+        return diff;
     }
 
     /**
-     * Performs a multi-source flood fill to find the shortest distance
-     * from every tile to the nearest agent of a specific player.
-     *
+     * Folds one agent into a row of closest distances, the building block for callers that keep one side fixed.
      */
-    private static void calculateDistancesForPlayer(Tile[][] map, Collection<Agent> allAgents, int player, int[][] distanceMap) {
-        int width = map.length;
-        int height = map[0].length;
-
-        // Use ArrayDeque for a more efficient queue implementation.
-        Queue<Tile> queue = new ArrayDeque<>();
-
-        // Initialize the queue with all agents of the specified player.
-        for (Agent agent : allAgents) {
-            if (agent.player == player && agent.active) {
-                distanceMap[agent.x][agent.y] = 0;
-                queue.add(map[agent.x][agent.y]);
-            }
+    public void relaxClosest(int[] closest, int tile, int wetness) {
+        int n = tileCount;
+        int shift = wetness >= 50 ? 1 : 0;
+        int row = tile * n;
+        for (int t = 0; t < n; t++) {
+            int d = manhattan[row + t] << shift;
+            if (d < closest[t]) closest[t] = d;
         }
+    }
 
-        // Standard BFS logic
-        int[] dx = {0, 0, 1, -1}; // Directions for neighbors (right, left, down, up)
-        int[] dy = {1, -1, 0, 0};
-
-        while (!queue.isEmpty()) {
-            Tile current = queue.poll();
+    // Tiles where mine is strictly closer minus tiles where theirs is
+    public static int compareClosest(int[] mine, int[] theirs) {
+        int diff = 0;
+        for (int t = 0; t < mine.length; t++) {
+            if (mine[t] < theirs[t]) diff++;
+            else if (theirs[t] < mine[t]) diff--;
+        }
+        return diff;
+    }
 
-            for (int i = 0; i < 4; i++) {
-                int newX = current.x + dx[i];
-                int newY = current.y + dy[i];
+    public int territoryDiff(Collection<Agent> agents) {
+        int count = agents.size();
+        int[] tiles = new int[count];
+        int[] players = new int[count];
+        int[] wetness = new int[count];
+        long aliveMask = 0;
+
+        int i = 0;
+        for (Agent a : agents) {
+            tiles[i] = a.tileId();
+            players[i] = a.player;
+            wetness[i] = a.wetness;
+            if (a.active) aliveMask |= 1L << i;
+            i++;
+        }
+        return territoryDiff(tiles, players, wetness, count, aliveMask);
+    }
 
-                // Check if the neighbor is within map bounds
-                if (newX >= 0 && newX < width && newY >= 0 && newY < height) {
-                    // If we found a shorter path to this neighbor, update it and add to queue
-                    if (distanceMap[newX][newY] > distanceMap[current.x][current.y] + 1) {
-                        distanceMap[newX][newY] = distanceMap[current.x][current.y] + 1;
-                        queue.add(map[newX][newY]);
-                    }
-                }
-            }
+    /**
+     * Calculates the number of tiles closer to each player's agents.
+     */
+    public TerritoryResult calculateTerritory(Collection<Agent> agents) {
+        territoryDiff(agents); // Leaves the per-player closest distances in the scratch rows
+        int n = tileCount;
+        int player0Territory = 0;
+        int player1Territory = 0;
+        for (int t = 0; t < n; t++) {
+            if (closest0[t] < closest1[t]) player0Territory++;
+            else if (closest1[t] < closest0[t]) player1Territory++;
         }
+        return new TerritoryResult(player0Territory, player1Territory);
     }
 }
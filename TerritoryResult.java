@@ -1,5 +1,5 @@
 /**
- * A class to hold the result of the territory calculation. Unused.
+ * A class to hold the result of the territory calculation.
  */
 class TerritoryResult {
     int player0Territory;
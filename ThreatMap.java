@@ -0,0 +1,82 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Per-turn threat layers over all tiles, built once from the enemy positions so move evaluation reads arrays
+ * instead of looping over enemies. Enemies don't move while my agents are planned, so the layers stay valid for
+ * the whole planning pass.
+ */
+public class ThreatMap {
+    static final int BOMB_REACH = 6; // Distance from which State counts an enemy with bombs as a splash threat
+
+    final GameContext ctx;
+    final int tileCount;
+    final float[] shot; // Unhunkered shot damage per enemy slot, flattened as slot * tileCount + tile, 0 for non-enemies
+    final float[] probableShot; // Sum over enemies ready to fire of their shot damage
+    final float[] cover; // Cover from every enemy, plus half of it at the neighbors and a third at the neighbors' neighbors
+    final byte[] bombReach; // Enemies with splash bombs left within BOMB_REACH
+    final byte[] predictedSplash; // Predicted enemy throws whose blast covers the tile
+
+    private final float[] coverSum;
+
+    public ThreatMap(GameContext ctx) {
+        this.ctx = ctx;
+        tileCount = ctx.tileCount;
+        shot = new float[GameState.MAX_AGENTS * tileCount];
+        probableShot = new float[tileCount];
+        cover = new float[tileCount];
+        bombReach = new byte[tileCount];
+        predictedSplash = new byte[tileCount];
+        coverSum = new float[tileCount];
+    }
+
+    /**
+     * Rebuilds every layer in O(enemies x tiles).
+     *
+     * @param predictedBomb predicted throw target tile per slot, or -1
+     * @param probableWeight weight of a shot from an enemy with no cooldown that isn't predicted to target the tile
+     */
+    public void build(GameState s, int enemyPlayer, int[] predictedBomb, double probableWeight) {
+        Arrays.fill(probableShot, 0f);
+        Arrays.fill(coverSum, 0f);
+        Arrays.fill(bombReach, (byte) 0);
+        Arrays.fill(predictedSplash, (byte) 0);
+
+        for (int e = 0; e < s.count; e++) {
+            int base = e * tileCount;
+            if (!s.isAlive(e) || s.player[e] != enemyPlayer) {
+                Arrays.fill(shot, base, base + tileCount, 0f);
+                continue;
+            }
+            int from = s.tile[e];
+            DamageTable table = s.damageTable[e];
+            boolean ready = s.cooldown[e] == 0;
+            boolean hasBombs = s.splash[e] > 0;
+
+            for (int t = 0; t < tileCount; t++) {
+                float damage = (float) table.damage(from, t, false);
+                shot[base + t] = damage;
+                if (ready) probableShot[t] += (float) (probableWeight * damage);
+                coverSum[t] += ctx.coverPercent(t, from) / 100f;
+                if (hasBombs && ctx.manhattan(from, t) <= BOMB_REACH) bombReach[t]++;
+            }
+
+            int bomb = predictedBomb[e];
+            if (bomb >= 0) {
+                for (int t = 0; t < tileCount; t++) {
+                    if (ctx.inSplash(bomb, t)) predictedSplash[t]++;
+                }
+            }
+        }
+
+        // The cover lookahead is linear in the per-enemy cover, so it's done once on the sum
+        for (int t = 0; t < tileCount; t++) {
+            cover[t] = ctx.analysis.lookahead(coverSum, t);
+        }
+    }
+
+    public float shotFrom(int enemySlot, int tile) {
+        return shot[enemySlot * tileCount + tile];
+    }
+}
@@ -3,12 +3,14 @@ import java.io.*;
 import java.math.*;
 
 public class Tile {
-    public static Map<Tile, Map<Tile, Integer>> AllDistances;
-    public static Map<Tile, double[][]> damageReductionGradient = new HashMap<Tile, double[][]>(); // Tile is the location of the agent getting cover, and the x,y gives the damageReduction from shots originated from there
+    public static final short UNREACHABLE = Short.MAX_VALUE; // Path distance sentinel for walls and disconnected tiles
 
+    GameContext ctx; // Map this tile belongs to, set by indexTiles
     int x;
     int y;
     int value;
+    int id;
+    int[] neighborIds = new int[0]; // Walkable neighbors as dense ids, filled by GameContext.precomputeTileData
     public final Set<Tile> neighbors;
     public final Set<Tile> covers;
 
@@ -65,92 +67,78 @@ public class Tile {
         return Math.abs(g.x - this.x) + Math.abs(g.y - this.y);
     }
 
+    // Returns UNREACHABLE if either tile is a wall or they are not connected
     public int agentPathDistanceTo(Tile g) {
-        Map<Tile, Integer> mp = AllDistances.get(this);
-        if (mp == null || mp.get(g) == null)
-            System.err.println("Issue finding distance: " + this + ", " + g); // Probably a wall!
-        return mp != null ? mp.get(g) : 0;
+        return ctx.pathDistance(this.id, g.id);
     }
 
-    public int bombDistanceTo(Tile g) {
-        return Math.max(this.distanceVecTo(g)[0], this.distanceVecTo(g)[1]);
-    }
-
-    public int[] distanceVecTo(Tile g) {
-        // For now return Manhattan distance
-        return new int[]{Math.abs(g.x - this.x), Math.abs(g.y - this.y)};
+    static int coverPercentOf(int tileValue) {
+        return tileValue == 2 ? 75 : tileValue == 1 ? 50 : 0;
     }
 
-    public Set<Tile> getCovers(){
-        return this.covers;
-    }
-
-    public static double[][] dmgReductionField(Tile[][] map, Tile agentXY) {
-        double[][] field = new double[map.length][map[0].length];
-        Set<Tile> covers = agentXY.getCovers();
-
-        if (covers.isEmpty()) {
-            return field; // Return the field of zeros if no cover is available.
-        }
-
-        for (Tile cover : covers) {
-            double reductionValue;
-            if (cover.value == 1) {
-                reductionValue = 0.5; // 50% for low cover
-            } else if (cover.value == 2) {
-                reductionValue = 0.75; // 75% for high cover
-            } else {
-                continue; // Not a valid cover tile.
-            }
-
-            // Determine the direction of the "shadow" cast by the cover, away from the agent.
-            int dirX = cover.x - agentXY.x; // To the right if positive (|dirX| = 1)
-            int dirY = cover.y - agentXY.y; // Downward if positive
-
-            // Start propagating the reduction from the tile on the other side of the cover.
-            int currentX = cover.x + dirX;
-            int currentY = cover.y + dirY;
-
-            boolean spanX = dirX == 0;
-            boolean spanY = dirY == 0;
-
-            while (currentX >= 0 && currentX < map.length && currentY >= 0 && currentY < map[0].length) {
-                // Use Math.max to ensure the highest cover value takes precedence.
-                field[currentX][currentY] = Math.max(field[currentX][currentY], reductionValue);
-
-                // Move to the next tile in the line of fire. Direction agnostic approach.
-                if (spanX) {
-                    for (int fixX = 0; fixX < map.length; fixX++) {
-                        field[fixX][currentY] = Math.max(field[fixX][currentY], reductionValue);
+    /**
+     * Fills coverReduction straight from the cover rule: a cover orthogonally adjacent to the target counts when the shooter
+     * is past it on that axis (at least 2 tiles away) and not itself adjacent to the cover. Only the highest cover counts.
+     */
+    public static void buildCoverTable(GameContext ctx) {
+        Tile[][] grid = ctx.map;
+        int tileCount = ctx.tileCount;
+        byte[] table = new byte[tileCount * tileCount];
+
+        for (Tile target : ctx.byId) {
+            int row = target.id * tileCount;
+            for (Tile shooter : ctx.byId) {
+                int dx = shooter.x - target.x;
+                int dy = shooter.y - target.y;
+                int best = 0;
+
+                if (Math.abs(dx) >= 2) {
+                    Tile cover = grid[target.x + Integer.signum(dx)][target.y];
+                    if (Math.max(Math.abs(shooter.x - cover.x), Math.abs(shooter.y - cover.y)) > 1) {
+                        best = Math.max(best, coverPercentOf(cover.value));
                     }
                 }
-
-                if (spanY) {
-                    for (int fixY = 0; fixY < map[currentX].length; fixY++) {
-                        field[currentX][fixY] = Math.max(field[currentX][fixY], reductionValue);
+                if (Math.abs(dy) >= 2) {
+                    Tile cover = grid[target.x][target.y + Integer.signum(dy)];
+                    if (Math.max(Math.abs(shooter.x - cover.x), Math.abs(shooter.y - cover.y)) > 1) {
+                        best = Math.max(best, coverPercentOf(cover.value));
                     }
                 }
 
-                currentX += dirX;
-                currentY += dirY;
+                table[row + shooter.id] = (byte) best;
             }
+        }
 
-            int[] coverDX = {-1, -1, -1, 0, 0, 0, 1, 1, 1};
-            int[] coverDY = {-1, 0, 1, -1, 0, 1, -1, 0, 1};
-
-            for (int dirI = 0; dirI < coverDX.length; dirI++) {
-                currentX = cover.x + coverDX[dirI];
-                currentY = cover.y + coverDY[dirI];
+        ctx.coverReduction = table;
+    }
 
-                if (currentX >= 0 && currentX < map.length && currentY >= 0 && currentY < map[0].length) {
-                    field[currentX][currentY] = field[currentX][currentY] == 2? 2 : 0;
-                }
+    // Assigns dense ids to every tile of the grid and ties the tiles to the context
+    public static void indexTiles(GameContext ctx, Tile[][] grid) {
+        ctx.width = grid.length;
+        ctx.height = grid[0].length;
+        ctx.tileCount = ctx.width * ctx.height;
+        ctx.byId = new Tile[ctx.tileCount];
+
+        for (int x = 0; x < ctx.width; x++) {
+            for (int y = 0; y < ctx.height; y++) {
+                Tile t = grid[x][y];
+                t.ctx = ctx;
+                t.id = y * ctx.width + x;
+                ctx.byId[t.id] = t;
             }
-
-            //field[cover.x][cover.y] = 2;
-            //field[agentXY.x][agentXY.y] = 1;
         }
+    }
 
-        return field;
+    public int bombDistanceTo(Tile g) {
+        return Math.max(this.distanceVecTo(g)[0], this.distanceVecTo(g)[1]);
+    }
+
+    public int[] distanceVecTo(Tile g) {
+        // For now return Manhattan distance
+        return new int[]{Math.abs(g.x - this.x), Math.abs(g.y - this.y)};
+    }
+
+    public Set<Tile> getCovers(){
+        return this.covers;
     }
 }
@@ -0,0 +1,86 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+import java.util.function.*;
+
+/**
+ * Wall clock budget for one turn. The clock starts when the first input token of the turn has been read,
+ * and the search deadline keeps a safety margin for GC pauses and writing the output, plus a short reserve for
+ * allocating combat once the moves are known.
+ * Everything that stops on the budget reads now(), so local tournaments can swap in a stepped clock and replay exactly.
+ */
+public class TimeBudget {
+    static final long FIRST_TURN_MS = 1000;
+    static final long TURN_MS = 50;
+    static final long FIRST_TURN_MARGIN_MS = 150; // JVM warmup and the precomputation are still settling
+    static final long TURN_MARGIN_MS = 10;
+    static final long COMBAT_RESERVE_MS = 3; // Kept back from the search for the combat allocation that follows it
+    static final long STEP_NANOS = 15_000; // Advance per reading of a stepped clock, about one warm MCTS iteration
+
+    private LongSupplier clock = System::nanoTime;
+
+    private long startNanos;
+    private long limitNanos;
+    private long deadlineNanos;
+    private long combatDeadlineNanos;
+    boolean firstTurn;
+
+    public void start(boolean firstTurn) {
+        this.firstTurn = firstTurn;
+        this.startNanos = now();
+        long limitMs = firstTurn ? FIRST_TURN_MS : TURN_MS;
+        long marginMs = firstTurn ? FIRST_TURN_MARGIN_MS : TURN_MARGIN_MS;
+        this.limitNanos = limitMs * 1_000_000L;
+        this.combatDeadlineNanos = startNanos + (limitMs - marginMs) * 1_000_000L;
+        this.deadlineNanos = combatDeadlineNanos - COMBAT_RESERVE_MS * 1_000_000L;
+    }
+
+    /**
+     * A clock that advances stepNanos on every reading instead of following real time. The searches then stop after
+     * the same amount of work whatever the machine's load, so a game replays exactly from its seed.
+     */
+    static LongSupplier steppedClock(long stepNanos) {
+        long[] nanos = {0};
+        return () -> nanos[0] += stepNanos;
+    }
+
+    // Switches clocks and restarts the current turn on the new one
+    public void useClock(LongSupplier clock) {
+        this.clock = clock;
+        start(firstTurn);
+    }
+
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    // Deadline for the work after the search, the output margin still applies
+    public long combatDeadlineNanos() {
+        return combatDeadlineNanos;
+    }
+
+    public boolean expired() {
+        return now() >= deadlineNanos;
+    }
+
+    public long remainingNanos() {
+        return Math.max(0, deadlineNanos - now());
+    }
+
+    public long elapsedNanos() {
+        return now() - startNanos;
+    }
+
+    public double elapsedMs() {
+        return elapsedNanos() / 1e6;
+    }
+
+    // Search time available this turn, margin excluded
+    public double searchBudgetMs() {
+        return (deadlineNanos - startNanos) / 1e6;
+    }
+
+    public double limitMs() {
+        return limitNanos / 1e6;
+    }
+}
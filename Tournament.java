@@ -0,0 +1,123 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+import java.util.concurrent.*;
+
+/**
+ * Local tool, not part of the submission. Plays bot A against bot B on every core with a work-stealing pool.
+ * Game i is played on GameSetup.random(firstSeed + i / 2) with A as player i % 2, so every map is played from both sides.
+ * Reports games/sec, A's score rate (wins plus half the draws) with a 95% Wilson interval and each bot's turn times.
+ * A game's map and line-ups are rebuilt from its seed alone. With the wall clock the bots' searches stop on real time,
+ * so a replay can still differ where a search was cut short. With stepped the bots budget on TimeBudget's stepped
+ * clock instead, the searches stop after the same work and two runs of the same games end the same way; the results
+ * digest compares runs game by game. Stepped turn times measure that work, not how the bot holds the time limit.
+ * Bots are PlayerBot specs: mcts, rhea, or anything else for the greedy pass alone, optionally followed by weight
+ * overrides such as "greedy,chokepoint=0" to play two weightings of the same planner against each other.
+ *
+ * Usage: java Tournament [games] [botA] [botB] [firstSeed] [threads] [wall|stepped]
+ */
+public class Tournament {
+    static final double Z_95 = 1.96;
+    static final int ERRORS_SHOWN = 5;
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        String botA = args.length > 1 ? args[1] : "mcts";
+        String botB = args.length > 2 ? args[2] : "greedy";
+        long firstSeed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        boolean stepped = args.length > 5 && args[5].equals("stepped");
+
+        PrintStream log = System.err;
+        System.setErr(new PrintStream(OutputStream.nullOutputStream())); // The bots log every turn
+
+        List<Callable<Referee.Result>> tasks = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            long seed = firstSeed + i / 2;
+            boolean aFirst = i % 2 == 0;
+            tasks.add(() -> {
+                PlayerBot a = new PlayerBot(botA);
+                PlayerBot b = new PlayerBot(botB);
+                a.steppedClock = b.steppedClock = stepped;
+                return new Referee(GameSetup.random(seed), aFirst ? a : b, aFirst ? b : a).play();
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        List<Future<Referee.Result>> futures = pool.invokeAll(tasks);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        System.setErr(log);
+
+        List<Referee.Result> results = new ArrayList<>();
+        for (Future<Referee.Result> f : futures) results.add(f.get());
+        System.out.printf("%d games of %s (A) vs %s (B) from seed %d on %d threads with the %s clock in %.1f s, %.2f games/s%n",
+                games, botA, botB, firstSeed, threads, stepped ? "stepped" : "wall", seconds, games / seconds);
+        report(results, botA, botB);
+    }
+
+    // Results in game order, A played player i % 2 in game i
+    static void report(List<Referee.Result> results, String botA, String botB) {
+        int games = results.size();
+        int wins = 0;
+        int draws = 0;
+        int losses = 0;
+        List<String> errors = new ArrayList<>();
+        List<List<Long>> firstTurns = Arrays.asList(new ArrayList<>(), new ArrayList<>()); // By bot, A then B
+        List<List<Long>> laterTurns = Arrays.asList(new ArrayList<>(), new ArrayList<>());
+        int[] late = new int[2];
+        int digest = 1; // Over every game's winner, scores and length in order
+        for (int i = 0; i < games; i++) {
+            Referee.Result r = results.get(i);
+            digest = 31 * digest + Objects.hash(r.winner, r.score[0], r.score[1], r.turns);
+            int a = i % 2; // Player id A played
+            if (r.winner == a) wins++;
+            else if (r.winner == 2) draws++;
+            else losses++;
+            if (r.error != null) errors.add("seed " + r.seed + " (A is player " + a + "): " + r.error);
+            for (int p = 0; p < 2; p++) {
+                int bot = p == a ? 0 : 1;
+                late[bot] += r.lateTurns[p];
+                for (int t = 0; t < r.turns; t++) {
+                    if (r.turnNanos[p][t] == 0) continue; // The game ended before this player moved
+                    (t == 0 ? firstTurns : laterTurns).get(bot).add(r.turnNanos[p][t]);
+                }
+            }
+        }
+
+        double rate = (wins + draws / 2.0) / games;
+        double[] interval = wilson(rate, games);
+        System.out.printf("A: %d wins, %d draws, %d losses, score rate %.1f%% (95%% CI %.1f%% - %.1f%%)%n",
+                wins, draws, losses, 100 * rate, 100 * interval[0], 100 * interval[1]);
+        String[] names = {"A " + botA, "B " + botB};
+        for (int bot = 0; bot < 2; bot++) {
+            System.out.printf("%s: first turn %s; later turns %s; %d turns over the limit%n",
+                    names[bot], percentiles(firstTurns.get(bot)), percentiles(laterTurns.get(bot)), late[bot]);
+        }
+        System.out.printf("results digest %08x%n", digest);
+        System.out.println(errors.size() + " forfeits");
+        for (int i = 0; i < Math.min(ERRORS_SHOWN, errors.size()); i++) System.out.println("  " + errors.get(i));
+    }
+
+    // Wilson score interval for a proportion observed over n games
+    static double[] wilson(double p, int n) {
+        double z2 = Z_95 * Z_95;
+        double center = (p + z2 / (2 * n)) / (1 + z2 / n);
+        double half = Z_95 * Math.sqrt(p * (1 - p) / n + z2 / (4.0 * n * n)) / (1 + z2 / n);
+        return new double[] {Math.max(0, center - half), Math.min(1, center + half)};
+    }
+
+    static String percentiles(List<Long> nanos) {
+        if (nanos.isEmpty()) return "none";
+        long[] sorted = new long[nanos.size()];
+        for (int i = 0; i < sorted.length; i++) sorted[i] = nanos.get(i);
+        Arrays.sort(sorted);
+        return String.format("p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms",
+                percentile(sorted, 0.5), percentile(sorted, 0.9), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double q) {
+        return sorted[Math.min(sorted.length - 1, (int) (q * sorted.length))] / 1e6;
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Fixed-size transposition table over Zobrist keys, stored as parallel primitive arrays.
+ * A key lives in one of PROBES consecutive slots from its home slot (open addressing, no chains). A full window
+ * replaces an entry from an older search first, then the entry with the least remaining depth if that isn't more
+ * than the new entry's. Otherwise the store is refused.
+ * Each entry holds a value and the remaining search depth behind it.
+ */
+public class TranspositionTable {
+    static final int PROBES = 4;
+    static final int TIMING_SAMPLE = 256; // Time one lookup in this many, timing every lookup would cost more than the lookup
+
+    final int capacity;
+    private final int mask;
+    private final long[] keys;
+    private final float[] values;
+    private final byte[] depths;
+    private final int[] ages;
+    private int age = 1; // Entries with another age belong to an older search and are free to replace
+
+    // Stats for the current search
+    long probes;
+    long hits;
+    long stores;
+    long replacements;
+    long refused;
+    private long timedProbes;
+    private long timedNanos;
+
+    public TranspositionTable(int log2Capacity) {
+        capacity = 1 << log2Capacity;
+        mask = capacity - 1;
+        keys = new long[capacity];
+        values = new float[capacity];
+        depths = new byte[capacity];
+        ages = new int[capacity];
+    }
+
+    // Starts a new search, all existing entries become replaceable
+    public void newSearch() {
+        age++;
+        probes = hits = stores = replacements = refused = 0;
+        timedProbes = timedNanos = 0;
+    }
+
+    private int home(long key) {
+        return (int) ((key ^ (key >>> 29)) * 0x9E3779B97F4A7C15L >>> 40) & mask;
+    }
+
+    // Entry index holding key from the current search, or -1
+    public int probe(long key) {
+        boolean timed = (probes++ % TIMING_SAMPLE) == 0;
+        // A lookup takes about as long as reading the clock, so an empty reading taken just before is subtracted
+        long empty = timed ? System.nanoTime() : 0;
+        long start = timed ? System.nanoTime() : 0;
+
+        int found = -1;
+        int index = home(key);
+        for (int p = 0; p < PROBES; p++, index = (index + 1) & mask) {
+            if (ages[index] == age && keys[index] == key) {
+                found = index;
+                break;
+            }
+        }
+
+        if (timed) {
+            long end = System.nanoTime();
+            timedNanos += (end - start) - (start - empty);
+            timedProbes++;
+        }
+        if (found >= 0) hits++;
+        return found;
+    }
+
+    /**
+     * Stores or overwrites the entry for key. Returns its index, or -1 when the window is full of entries worth more.
+     */
+    public int store(long key, float value, int depth) {
+        int index = home(key);
+        int victim = -1;
+        for (int p = 0; p < PROBES; p++, index = (index + 1) & mask) {
+            if (ages[index] != age) {
+                if (victim < 0 || ages[victim] == age) victim = index; // Stale or empty, keep looking for the key itself
+                continue;
+            }
+            if (keys[index] == key) {
+                victim = index;
+                break;
+            }
+            if (victim < 0 || (ages[victim] == age && depths[index] < depths[victim])) victim = index;
+        }
+
+        if (ages[victim] == age && keys[victim] != key) {
+            if (depths[victim] > depth) {
+                refused++;
+                return -1;
+            }
+            replacements++;
+        }
+        keys[victim] = key;
+        values[victim] = value;
+        depths[victim] = (byte) Math.min(depth, Byte.MAX_VALUE);
+        ages[victim] = age;
+        stores++;
+        return victim;
+    }
+
+    public float value(int index) {
+        return values[index];
+    }
+
+    public void update(int index, float value) {
+        values[index] = value;
+    }
+
+    public double hitRate() {
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    public double nanosPerProbe() {
+        return timedProbes == 0 ? 0 : Math.max(0, (double) timedNanos / timedProbes);
+    }
+
+    public String stats() {
+        return String.format("tt %d probes, %.1f%% hits, %.0f ns/probe, %d stores, %d replaced, %d refused",
+                probes, 100 * hitRate(), nanosPerProbe(), stores, replacements, refused);
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * One turn's input: every agent still in the game, in input order, and how many of them are mine.
+ */
+public class TurnSnapshot {
+    final int agentCount;
+    final int[] agentId;
+    final int[] x;
+    final int[] y;
+    final int[] cooldown; // Number of turns before this agent can shoot
+    final int[] splashBombs;
+    final int[] wetness; // Damage (0-100) this agent has taken
+    int myAgentCount; // Number of alive agents controlled by the bot
+
+    public TurnSnapshot(int agentCount) {
+        this.agentCount = agentCount;
+        agentId = new int[agentCount];
+        x = new int[agentCount];
+        y = new int[agentCount];
+        cooldown = new int[agentCount];
+        splashBombs = new int[agentCount];
+        wetness = new int[agentCount];
+    }
+
+    public void set(int i, int id, int x, int y, int cooldown, int splashBombs, int wetness) {
+        this.agentId[i] = id;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.cooldown[i] = cooldown;
+        this.splashBombs[i] = splashBombs;
+        this.wetness[i] = wetness;
+    }
+
+    // The budget's clock starts when the agent count has been read, so the caller passes it in
+    public static TurnSnapshot read(Scanner in, int agentCount) {
+        TurnSnapshot turn = new TurnSnapshot(agentCount);
+        for (int i = 0; i < agentCount; i++) {
+            turn.set(i, in.nextInt(), in.nextInt(), in.nextInt(), in.nextInt(), in.nextInt(), in.nextInt());
+        }
+        turn.myAgentCount = in.nextInt();
+        return turn;
+    }
+
+    // The same turn in the referee's text format, what read parses
+    public String toInput() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(agentCount).append('\n');
+        for (int i = 0; i < agentCount; i++) {
+            sb.append(agentId[i]).append(' ').append(x[i]).append(' ').append(y[i]).append(' ')
+                    .append(cooldown[i]).append(' ').append(splashBombs[i]).append(' ').append(wetness[i]).append('\n');
+        }
+        sb.append(myAgentCount).append('\n');
+        return sb.toString();
+    }
+}
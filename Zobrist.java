@@ -0,0 +1,76 @@
+import java.util.*;
+import java.io.*;
+import java.math.*;
+
+/**
+ * Zobrist keys for GameState: one random key per (slot, value) for positions, wetness buckets, cooldowns, splash bombs
+ * and alive flags, plus one per turn so equal positions at different plies stay apart.
+ * The Simulator keeps GameState.hash up to date by XORing out the old key and in the new one on every change.
+ * Position keys are sized for the largest board a Bitboard holds, so one fixed set of keys serves every map and the
+ * tables never change after class loading, which keeps them safe to share between games on different threads.
+ */
+public class Zobrist {
+    static final int WETNESS_BUCKET = 10; // Wetness within the same 10 points hashes the same
+    static final int WETNESS_BUCKETS = 100 / WETNESS_BUCKET + 1;
+    static final int MAX_COUNTER = 8; // Cooldowns and bomb counts are clamped to this, higher values play the same
+    static final int TURNS = 128;
+    static final int MAX_TILES = Bitboard.WORDS * 64;
+    static final long SEED = 0;
+
+    // Per-agent values with their own keys
+    static final int FIELD_TILE = 0;
+    static final int FIELD_COOLDOWN = 1;
+    static final int FIELD_SPLASH = 2;
+    static final int FIELD_WETNESS = 3;
+
+    static final long[] position; // slot * MAX_TILES + tile
+    static final long[] wetness; // slot * WETNESS_BUCKETS + bucket
+    static final long[] cooldown; // slot * MAX_COUNTER + cooldown
+    static final long[] splash; // slot * MAX_COUNTER + bombs
+    static final long[] alive; // slot
+    static final long[] turn;
+
+    static {
+        Random random = new Random(SEED);
+        position = randomKeys(random, GameState.MAX_AGENTS * MAX_TILES);
+        wetness = randomKeys(random, GameState.MAX_AGENTS * WETNESS_BUCKETS);
+        cooldown = randomKeys(random, GameState.MAX_AGENTS * MAX_COUNTER);
+        splash = randomKeys(random, GameState.MAX_AGENTS * MAX_COUNTER);
+        alive = randomKeys(random, GameState.MAX_AGENTS);
+        turn = randomKeys(random, TURNS);
+    }
+
+    private static long[] randomKeys(Random random, int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) keys[i] = random.nextLong();
+        return keys;
+    }
+
+    // Key contributed by one per-agent value, field is one of the FIELD_* constants
+    static long key(int field, int slot, int value) {
+        switch (field) {
+            case FIELD_TILE: return position[slot * MAX_TILES + value];
+            case FIELD_COOLDOWN: return cooldown[slot * MAX_COUNTER + Math.min(value, MAX_COUNTER - 1)];
+            case FIELD_SPLASH: return splash[slot * MAX_COUNTER + Math.min(value, MAX_COUNTER - 1)];
+            default: return wetness[slot * WETNESS_BUCKETS + Math.min(value, 100) / WETNESS_BUCKET];
+        }
+    }
+
+    static long turnKey(int t) {
+        return turn[t & (TURNS - 1)];
+    }
+
+    // Full key from scratch, the incremental updates must always agree with this
+    static long hash(GameState s) {
+        long h = turnKey(s.turn);
+        for (int i = 0; i < s.count; i++) {
+            if (!s.isAlive(i)) continue; // Dead agents' leftover values don't matter
+            h ^= alive[i];
+            h ^= key(FIELD_TILE, i, s.tile[i]);
+            h ^= key(FIELD_COOLDOWN, i, s.cooldown[i]);
+            h ^= key(FIELD_SPLASH, i, s.splash[i]);
+            h ^= key(FIELD_WETNESS, i, s.wetness[i]);
+        }
+        return h;
+    }
+}